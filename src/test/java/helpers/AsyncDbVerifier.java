@@ -0,0 +1,245 @@
+package helpers;
+
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import pojo.DataPostDigest;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновая проверка состояния постов в базе.
+ * Тест передает ожидаемое состояние и продолжает работу; проверки собираются в пакеты,
+ * выполняются одним запросом с IN-списком на небольшом пуле потоков и при несовпадении
+ * повторяются с увеличивающейся задержкой (на случай задержки фиксации или репликации).
+ * Ошибки приписываются тесту, который передал ожидание, при вызове awaitAndAttribute.
+ * <p>
+ * Ожидаемое состояние должно быть конечным: если тест после передачи ожидания снова меняет пост
+ * (например, удаляет его), проверка увидит уже новое состояние.
+ */
+public final class AsyncDbVerifier {
+
+    /**
+     * Включена ли фоновая проверка. Если выключена, проверки выполняются сразу в потоке теста.
+     */
+    public static final boolean ENABLED = ParametersProvider.getBooleanProperty("dbVerifyAsync", false);
+
+    private static final int BATCH_SIZE = (int) ParametersProvider.getLongProperty("dbVerifyBatchSize", 100);
+    private static final long BATCH_WINDOW_MS = ParametersProvider.getLongProperty("dbVerifyBatchWindowMs", 20);
+    private static final int WORKERS = (int) ParametersProvider.getLongProperty("dbVerifyWorkers", 2);
+    private static final int MAX_ATTEMPTS = (int) ParametersProvider.getLongProperty("dbVerifyMaxAttempts", 5);
+    private static final long BACKOFF_MS = ParametersProvider.getLongProperty("dbVerifyBackoffMs", 100);
+    private static final long AWAIT_MS = ParametersProvider.getLongProperty("dbVerifyAwaitMs", 30_000);
+
+    private static final DataBaseHelper DB_HELPER = new DataBaseHelper();
+    private static final BlockingQueue<Expectation> QUEUE = new LinkedBlockingQueue<>();
+    private static final ConcurrentLinkedQueue<Expectation> SUBMITTED = new ConcurrentLinkedQueue<>();
+
+    private static ExecutorService workers;
+    private static ScheduledExecutorService retryScheduler;
+
+    /**
+     * Ожидаемое состояние одного поста и результат его проверки (null — совпало, иначе описание расхождения).
+     */
+    private static final class Expectation {
+        private final DataPostDigest expected;
+        private final boolean contentChecked;
+        private final ITestResult testResult;
+        private final String correlationId;
+        private final CompletableFuture<String> outcome = new CompletableFuture<>();
+        private int attempts;
+
+        private Expectation(DataPostDigest expected, boolean contentChecked, ITestResult testResult, String correlationId) {
+            this.expected = expected;
+            this.contentChecked = contentChecked;
+            this.testResult = testResult;
+            this.correlationId = correlationId;
+        }
+    }
+
+    private AsyncDbVerifier() {
+    }
+
+    /**
+     * Передает ожидаемое состояние поста на фоновую проверку.
+     * Поля title и status, равные null, не проверяются; содержимое проверяется, если contentChecked.
+     *
+     * @param expected       Ожидаемое состояние (см. ContentDigest.expected).
+     * @param contentChecked Проверять ли длину и SHA-256 содержимого.
+     */
+    public static void submit(DataPostDigest expected, boolean contentChecked) {
+        Expectation expectation = new Expectation(expected, contentChecked, Reporter.getCurrentTestResult(),
+                EventLog.currentCorrelationId());
+        start();
+        SUBMITTED.add(expectation);
+        QUEUE.add(expectation);
+    }
+
+    /**
+     * Дожидается проверок, переданных тестами указанного класса, и помечает эти тесты как упавшие,
+     * если состояние в базе не совпало. Выбрасывает AssertionError со списком расхождений.
+     *
+     * @param testClass Класс тестов.
+     */
+    public static void awaitAndAttribute(Class<?> testClass) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(AWAIT_MS);
+        List<String> failures = new ArrayList<>();
+        for (Iterator<Expectation> it = SUBMITTED.iterator(); it.hasNext(); ) {
+            Expectation expectation = it.next();
+            ITestResult result = expectation.testResult;
+            if (result != null && result.getTestClass().getRealClass() != testClass) {
+                continue;
+            }
+            it.remove();
+            String failure = await(expectation, deadline);
+            if (failure == null) {
+                continue;
+            }
+            if (result != null) {
+                markFailed(result, failure);
+                failures.add(result.getMethod().getMethodName() + ": " + failure);
+            } else {
+                failures.add(failure);
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError("Фоновая проверка базы обнаружила расхождения:\n" + String.join("\n", failures));
+        }
+    }
+
+    /**
+     * Ждет результат проверки до общего для класса срока, чтобы при недоступной базе ожидание
+     * не растягивалось на AWAIT_MS для каждой проверки.
+     */
+    private static String await(Expectation expectation, long deadlineNanos) {
+        try {
+            return expectation.outcome.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return "Пост " + expectation.expected.getId() + ": проверки класса не завершились за " + AWAIT_MS + " мс";
+        } catch (Exception e) {
+            return "Пост " + expectation.expected.getId() + ": ошибка проверки " + e;
+        }
+    }
+
+    /**
+     * Забывает переданные ранее проверки, например перед очередным прогоном в той же JVM: их расхождения
+     * больше не приписываются тестам. Уже выполняющиеся пакеты завершаются без последствий.
+     */
+    public static void reset() {
+        QUEUE.clear();
+        SUBMITTED.clear();
+    }
+
+    private static void markFailed(ITestResult result, String failure) {
+        if (result.getStatus() != ITestResult.SUCCESS) {
+            return;
+        }
+        result.setStatus(ITestResult.FAILURE);
+        result.setThrowable(new AssertionError(failure));
+        ITestContext context = result.getTestContext();
+        context.getPassedTests().removeResult(result);
+        context.getFailedTests().addResult(result);
+    }
+
+    private static synchronized void start() {
+        if (workers != null) {
+            return;
+        }
+        workers = Executors.newFixedThreadPool(WORKERS, daemon("db-verify-worker"));
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(daemon("db-verify-retry"));
+        daemon("db-verify-dispatcher").newThread(AsyncDbVerifier::dispatch).start();
+    }
+
+    /**
+     * Собирает ожидания в пакеты: не больше BATCH_SIZE штук или все, что пришло за BATCH_WINDOW_MS после первого.
+     */
+    private static void dispatch() {
+        try {
+            while (true) {
+                List<Expectation> batch = new ArrayList<>();
+                batch.add(QUEUE.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BATCH_WINDOW_MS);
+                while (batch.size() < BATCH_SIZE) {
+                    Expectation next = QUEUE.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                workers.execute(() -> verify(batch));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void verify(List<Expectation> batch) {
+        Map<Integer, DataPostDigest> actual;
+        // Запрос пакета помечается идентификаторами корреляции всех тестов, передавших ожидания.
+        String correlationIds = batch.stream().map(e -> e.correlationId)
+                .filter(Objects::nonNull).distinct().collect(Collectors.joining(","));
+        String previous = EventLog.setCurrentCorrelationId(correlationIds.isEmpty() ? null : correlationIds);
+        try {
+            actual = DB_HELPER.getPostDigestsByIds(batch.stream().map(e -> e.expected.getId()).collect(Collectors.toSet()));
+        } catch (RuntimeException e) {
+            actual = Map.of();
+        } finally {
+            EventLog.setCurrentCorrelationId(previous);
+        }
+        for (Expectation expectation : batch) {
+            String mismatch = describeMismatch(expectation, actual.get(expectation.expected.getId()));
+            expectation.attempts++;
+            if (mismatch == null) {
+                expectation.outcome.complete(null);
+            } else if (expectation.attempts >= MAX_ATTEMPTS) {
+                expectation.outcome.complete(mismatch);
+            } else {
+                Metrics.increment("db.verify.retry");
+                long delay = BACKOFF_MS << Math.min(expectation.attempts - 1, 20);
+                retryScheduler.schedule(() -> QUEUE.add(expectation), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private static String describeMismatch(Expectation expectation, DataPostDigest actual) {
+        DataPostDigest expected = expectation.expected;
+        String prefix = "Пост " + expected.getId() + ": ";
+        if (actual == null) {
+            return prefix + "не найден в базе";
+        }
+        if (expected.getTitle() != null && !expected.getTitle().equals(actual.getTitle())) {
+            return prefix + "заголовок в базе не совпадает: ожидался [" + expected.getTitle() + "], в базе [" + actual.getTitle() + "]";
+        }
+        if (expected.getStatus() != null && !expected.getStatus().equals(actual.getStatus())) {
+            return prefix + "статус в базе не совпадает: ожидался [" + expected.getStatus() + "], в базе [" + actual.getStatus() + "]";
+        }
+        if (expectation.contentChecked && (!Objects.equals(expected.getContentLength(), actual.getContentLength())
+                || !Objects.equals(expected.getContentSha256(), actual.getContentSha256()))) {
+            return prefix + "содержимое в базе не совпадает";
+        }
+        return null;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
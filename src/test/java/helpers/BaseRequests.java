@@ -1,12 +1,31 @@
 package helpers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.http.ContentType;
 import io.restassured.specification.RequestSpecification;
+import pojo.DataBatch;
 import pojo.DataError;
 import pojo.DataPost;
+import pojo.DataUser;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
@@ -24,31 +43,116 @@ public class BaseRequests {
      */
     public static final String POSTS_PATH = ParametersProvider.getProperty("posts_path");
 
+    /**
+     * Адрес API (через FaultProxy, если он включен параметром proxyApiEnabled).
+     */
+    public static final String API_URL = FaultProxy.apiUrl(ParametersProvider.getProperty("apiUrl"));
+
+    /**
+     * Путь для взаимодействия с пользователями.
+     */
+    public static final String USERS_PATH = ParametersProvider.getProperty("users_path");
+
+    /**
+     * Путь пакетного эндпоинта WordPress.
+     */
+    public static final String BATCH_PATH = ParametersProvider.getProperty("batch_path");
+
+    /**
+     * Предел WordPress на число подзапросов в одном пакете.
+     */
+    private static final int MAX_BATCH_SIZE = 25;
+
+    /**
+     * Максимальное число подзапросов в одном пакете (от 1 до MAX_BATCH_SIZE).
+     */
+    public static final int BATCH_SIZE = (int) Math.max(1, Math.min(MAX_BATCH_SIZE,
+            ParametersProvider.getLongProperty("batch_size", MAX_BATCH_SIZE)));
+
+    /**
+     * Маршрут постов внутри REST API (например, /wp/v2/posts), используется в подзапросах пакета.
+     */
+    public static final String POSTS_ROUTE = toRestRoute(POSTS_PATH);
+
+    /**
+     * Размер фрагмента при потоковой (chunked) отправке тела запроса.
+     */
+    private static final int STREAMING_CHUNK_SIZE = 64 * 1024;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Уже посчитанные заголовки Basic Auth: логин → пароль → заголовок.
+     */
+    private static final Map<String, Map<String, String>> AUTH_HEADERS = new ConcurrentHashMap<>();
+
     public static RequestSpecification requestSpec(String authToken) {
         return new RequestSpecBuilder()
-                .setBaseUri(ParametersProvider.getProperty("apiUrl"))
+                .setBaseUri(API_URL)
                 .setContentType(ContentType.JSON)
                 .addHeader("Authorization", "Basic " + authToken)
+                .setConfig(Resilience.config())
+                .addFilter(EventLog.filter())
+                .addFilter(RequestCapture.filter())
+                .addFilter(Resilience.filter())
+                .addFilter(PerfRecorder.filter())
                 .build();
     }
 
     public static RequestSpecification requestSpec() {
         return new RequestSpecBuilder()
-                .setBaseUri(ParametersProvider.getProperty("apiUrl"))
+                .setBaseUri(API_URL)
                 .setContentType(ContentType.JSON)
+                .setConfig(Resilience.config())
+                .addFilter(EventLog.filter())
+                .addFilter(RequestCapture.filter())
+                .addFilter(Resilience.filter())
+                .addFilter(PerfRecorder.filter())
                 .build();
     }
 
     /**
-     * Создает заголовок авторизации в формате Basic Auth.
+     * Спецификация запроса без повторов, circuit breaker и лимита частоты: каждая попытка уходит на сервер
+     * ровно один раз, а ответ 5xx возвращается вызывающему. Для нагрузочных сценариев, которым нужен
+     * сырой результат каждого запроса и которые не должны открывать общий breaker остальных тестов.
+     *
+     * @param authToken Токен авторизации.
+     * @return спецификация запроса
+     */
+    public static RequestSpecification unguardedRequestSpec(String authToken) {
+        return new RequestSpecBuilder()
+                .setBaseUri(API_URL)
+                .setContentType(ContentType.JSON)
+                .addHeader("Authorization", "Basic " + authToken)
+                .setConfig(Resilience.config())
+                .addFilter(EventLog.filter())
+                .addFilter(RequestCapture.filter())
+                .addFilter(PerfRecorder.filter())
+                .build();
+    }
+
+    /**
+     * Создает заголовок авторизации в формате Basic Auth. Результат кэшируется для каждой пары логин/пароль.
      *
      * @param username Имя пользователя
      * @param password Пароль пользователя
      * @return строка заголовка с кодировкой Base64, готовая к использованию в HTTP-запросе.
      */
     public static String createBasicAuthHeader(String username, String password) {
-        String credentials = username + ":" + password;
-        return Base64.getEncoder().encodeToString(credentials.getBytes());
+        Map<String, String> byPassword = AUTH_HEADERS.get(username);
+        if (byPassword == null) {
+            byPassword = new ConcurrentHashMap<>();
+            Map<String, String> existing = AUTH_HEADERS.putIfAbsent(username, byPassword);
+            if (existing != null) {
+                byPassword = existing;
+            }
+        }
+        String header = byPassword.get(password);
+        if (header == null) {
+            header = Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+            byPassword.putIfAbsent(password, header);
+        }
+        return header;
     }
 
     /**
@@ -68,7 +172,7 @@ public class BaseRequests {
      * @return Созданный пост формата DataPost
      */
     public static DataPost createPost(DataPost requestBody, String token) {
-        return given()
+        return Resilience.call("POST", () -> given()
                 .spec(BaseRequests.requestSpec(token))
                 .body(requestBody)
                 .when()
@@ -76,7 +180,7 @@ public class BaseRequests {
                 .then()
                 .statusCode(201)
                 .body("id", notNullValue())
-                .extract().as(DataPost.class);
+                .extract().as(DataPost.class));
     }
 
     /**
@@ -132,14 +236,14 @@ public class BaseRequests {
      * @return Объект DataError с информацией об ошибке.
      */
     public static DataError getPostByIdWithoutAuth(Integer postId) {
-        return given()
+        return Resilience.call("GET", () -> given()
                 .spec(BaseRequests.requestSpec())
                 .when()
                 .get(POSTS_PATH + "/" + postId)
                 .then()
                 .statusCode(401)
                 .body("data.status", equalTo(401))
-                .extract().as(DataError.class);
+                .extract().as(DataError.class));
     }
 
     /**
@@ -150,14 +254,14 @@ public class BaseRequests {
      * @return Объект DataError с информацией об ошибке.
      */
     public static DataError getPostByIdWithInvalidAuth(Integer postId, String token) {
-        return given()
+        return Resilience.call("GET", () -> given()
                 .spec(BaseRequests.requestSpec(token))
                 .when()
                 .get(POSTS_PATH + "/" + postId)
                 .then()
                 .statusCode(403)
                 .body("data.status", equalTo(403))
-                .extract().as(DataError.class);
+                .extract().as(DataError.class));
     }
 
     /**
@@ -168,7 +272,7 @@ public class BaseRequests {
      * @return Возвращает объект DataPost с информацией о созданном посте.
      */
     public static DataPost addPostSuccessRequest(DataPost requestBody, String token) {
-        return given()
+        return Resilience.call("POST", () -> given()
                 .spec(BaseRequests.requestSpec(token))
                 .body(requestBody)
                 .when()
@@ -177,7 +281,7 @@ public class BaseRequests {
                 .statusCode(201)
                 .body("id", notNullValue())
                 .extract()
-                .as(DataPost.class);
+                .as(DataPost.class));
     }
 
     /**
@@ -187,7 +291,7 @@ public class BaseRequests {
      * @return Объект DataError с информацией об ошибке.
      */
     public static DataError addPostInvalidRequest(DataPost requestBody) {
-        return given()
+        return Resilience.call("POST", () -> given()
                 .spec(BaseRequests.requestSpec(TOKEN))
                 .body(requestBody)
                 .when()
@@ -195,7 +299,7 @@ public class BaseRequests {
                 .then()
                 .statusCode(400)
                 .extract()
-                .as(DataError.class);
+                .as(DataError.class));
     }
 
     /**
@@ -205,7 +309,7 @@ public class BaseRequests {
      * @return Объект DataError с информацией об ошибке.
      */
     public static DataError addPostWithoutAuth(DataPost requestBody) {
-        return given()
+        return Resilience.call("POST", () -> given()
                 .spec(BaseRequests.requestSpec())
                 .body(requestBody)
                 .when()
@@ -213,7 +317,7 @@ public class BaseRequests {
                 .then()
                 .statusCode(401)
                 .extract()
-                .as(DataError.class);
+                .as(DataError.class));
     }
 
     /**
@@ -222,7 +326,7 @@ public class BaseRequests {
      * @param postId ID поста, который нужно удалить.
      */
     public static void deleteCorrectPost(Integer postId) {
-        given()
+        Resilience.call("DELETE", () -> given()
                 .spec(BaseRequests.requestSpec(TOKEN))
                 .when()
                 .delete(POSTS_PATH + "/" + postId)
@@ -230,7 +334,7 @@ public class BaseRequests {
                 .statusCode(200)
                 .body("id", equalTo(postId))
                 .body("status", equalTo("trash"))
-                .extract().as(DataPost.class);
+                .extract().as(DataPost.class));
     }
 
     /**
@@ -239,7 +343,7 @@ public class BaseRequests {
      * @param postId ID поста, который уже был удален.
      */
     public static void deleteAlreadyDeletedPost(Integer postId) {
-        given()
+        Resilience.call("DELETE", () -> given()
                 .spec(BaseRequests.requestSpec(TOKEN))
                 .when()
                 .delete(POSTS_PATH + "/" + postId)
@@ -248,7 +352,7 @@ public class BaseRequests {
                 .body("code", equalTo("rest_already_trashed"))
                 .body("message", equalTo("Запись уже была удалена."))
                 .body("data.status", equalTo(410))
-                .extract().as(DataError.class);
+                .extract().as(DataError.class));
     }
 
     /**
@@ -257,7 +361,7 @@ public class BaseRequests {
      * @param postId ID поста, который нужно удалить без авторизации.
      */
     public static void deleteCorrectPostWithoutAuth(Integer postId) {
-        given()
+        Resilience.call("DELETE", () -> given()
                 .spec(BaseRequests.requestSpec())
                 .when()
                 .delete(POSTS_PATH + "/" + postId)
@@ -266,7 +370,7 @@ public class BaseRequests {
                 .body("code", equalTo("rest_cannot_delete"))
                 .body("message", equalTo("Извините, вам не разрешено удалять эту запись."))
                 .body("data.status", equalTo(401))
-                .extract().as(DataError.class);
+                .extract().as(DataError.class));
     }
 
     /**
@@ -277,8 +381,20 @@ public class BaseRequests {
      * @return Объект обновленного DataPost.
      */
     public static DataPost updatePostWithAuthSuccess(DataPost requestBody, Integer postId) {
-        return given()
-                .spec(BaseRequests.requestSpec(TOKEN))
+        return updatePostWithAuthSuccess(requestBody, postId, TOKEN);
+    }
+
+    /**
+     * Успешно обновляет пост по заданным данным от имени указанного пользователя.
+     *
+     * @param requestBody Данные для обновления поста в формате DataPost.
+     * @param postId      ID поста, который необходимо обновить.
+     * @param token       Токен авторизации.
+     * @return Объект обновленного DataPost.
+     */
+    public static DataPost updatePostWithAuthSuccess(DataPost requestBody, Integer postId, String token) {
+        return Resilience.call("PUT", () -> given()
+                .spec(BaseRequests.requestSpec(token))
                 .body(requestBody)
                 .when()
                 .put(POSTS_PATH + "/" + postId)
@@ -286,7 +402,7 @@ public class BaseRequests {
                 .statusCode(200)
                 .body("id", equalTo(postId))
                 .extract()
-                .as(DataPost.class);
+                .as(DataPost.class));
     }
 
     /**
@@ -296,7 +412,7 @@ public class BaseRequests {
      * @param updateId    ID поста, который пытаются обновить.
      */
     public static void updateInvalidPost(DataPost requestBody, Integer updateId) {
-        given()
+        Resilience.call("PUT", () -> given()
                 .spec(BaseRequests.requestSpec(TOKEN))
                 .body(requestBody)
                 .when()
@@ -307,7 +423,7 @@ public class BaseRequests {
                 .body("message", equalTo("Неверный ID записи."))
                 .body("data.status", equalTo(404))
                 .extract()
-                .as(DataError.class);
+                .as(DataError.class));
     }
 
     /**
@@ -317,7 +433,7 @@ public class BaseRequests {
      * @param postId      ID поста, который пытаются обновить.
      */
     public static void updatePostWithoutAuth(DataPost requestBody, Integer postId) {
-        given()
+        Resilience.call("PUT", () -> given()
                 .spec(BaseRequests.requestSpec())
                 .body(requestBody)
                 .when()
@@ -328,6 +444,335 @@ public class BaseRequests {
                 .body("message", equalTo("Извините, вам не разрешено редактировать эту запись."))
                 .body("data.status", equalTo(401))
                 .extract()
-                .as(DataError.class);
+                .as(DataError.class));
+    }
+
+    /**
+     * Создает посты пакетными запросами.
+     *
+     * @param posts Данные постов для создания.
+     * @param token Токен авторизации.
+     * @return Результаты по каждому посту в порядке входного списка.
+     */
+    public static List<DataBatch.Result> createPostsBatch(List<DataPost> posts, String token) {
+        List<DataBatch.Request> requests = new ArrayList<>();
+        for (DataPost post : posts) {
+            requests.add(new DataBatch.Request("POST", POSTS_ROUTE, post));
+        }
+        return sendBatch(requests, token);
+    }
+
+    /**
+     * Обновляет посты пакетными запросами. ID каждого поста берется из DataPost.
+     *
+     * @param posts Данные для обновления постов с заполненным ID.
+     * @param token Токен авторизации.
+     * @return Результаты по каждому посту в порядке входного списка.
+     */
+    public static List<DataBatch.Result> updatePostsBatch(List<DataPost> posts, String token) {
+        List<DataBatch.Request> requests = new ArrayList<>();
+        for (DataPost post : posts) {
+            requests.add(new DataBatch.Request("PUT", POSTS_ROUTE + "/" + post.getId(), post));
+        }
+        return sendBatch(requests, token);
+    }
+
+    /**
+     * Удаляет (перемещает в корзину) посты пакетными запросами.
+     *
+     * @param postIds ID постов для удаления.
+     * @param token   Токен авторизации.
+     * @return Результаты по каждому посту в порядке входного списка.
+     */
+    public static List<DataBatch.Result> deletePostsBatch(List<Integer> postIds, String token) {
+        List<DataBatch.Request> requests = new ArrayList<>();
+        for (Integer postId : postIds) {
+            requests.add(new DataBatch.Request("DELETE", POSTS_ROUTE + "/" + postId, null));
+        }
+        return sendBatch(requests, token);
+    }
+
+    /**
+     * Разбивает подзапросы на пакеты не больше BATCH_SIZE, отправляет их и разбирает ответы.
+     * Успешные ответы преобразуются в DataPost, ошибочные — в DataError.
+     *
+     * @param requests Подзапросы.
+     * @param token    Токен авторизации.
+     * @return Результаты по каждому подзапросу в исходном порядке.
+     */
+    private static List<DataBatch.Result> sendBatch(List<DataBatch.Request> requests, String token) {
+        List<DataBatch.Result> results = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += BATCH_SIZE) {
+            List<DataBatch.Request> chunk = requests.subList(from, Math.min(from + BATCH_SIZE, requests.size()));
+            DataBatch.Response response = Resilience.call("POST", () -> given()
+                    .spec(BaseRequests.requestSpec(token))
+                    .body(new DataBatch("normal", chunk))
+                    .when()
+                    .post(BATCH_PATH)
+                    .then()
+                    .statusCode(207)
+                    .extract()
+                    .as(DataBatch.Response.class));
+
+            if (response.getResponses() == null || response.getResponses().size() != chunk.size()) {
+                throw new RuntimeException("Количество ответов пакета не совпадает с количеством подзапросов: " + chunk.size());
+            }
+            for (DataBatch.Item item : response.getResponses()) {
+                DataBatch.Result result = new DataBatch.Result(item.getStatus(), null, null);
+                if (result.isSuccess()) {
+                    result.setPost(MAPPER.convertValue(item.getBody(), DataPost.class));
+                } else {
+                    result.setError(MAPPER.convertValue(item.getBody(), DataError.class));
+                }
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Выделяет маршрут REST API из пути вида index.php?rest_route=/wp/v2/posts или wp-json/wp/v2/posts.
+     *
+     * @param path Путь из конфигурации.
+     * @return Маршрут, начинающийся с "/".
+     */
+    private static String toRestRoute(String path) {
+        int routeIndex = path.indexOf("rest_route=");
+        if (routeIndex >= 0) {
+            return path.substring(routeIndex + "rest_route=".length());
+        }
+        String route = path.startsWith("wp-json") ? path.substring("wp-json".length()) : path;
+        return route.startsWith("/") ? route : "/" + route;
+    }
+
+    /**
+     * Создает пост с большим содержимым из файла, не загружая его в память целиком.
+     *
+     * @param titleText   Текст заголовка поста.
+     * @param contentFile Файл с содержимым поста в UTF-8.
+     * @param statusText  Статус поста.
+     * @param token       Токен авторизации.
+     * @return Созданный пост (ID, заголовок и статус, без содержимого).
+     */
+    public static DataPost createLargePost(String titleText, Path contentFile, String statusText, String token) {
+        try (Reader content = Files.newBufferedReader(contentFile, StandardCharsets.UTF_8)) {
+            return createLargePost(titleText, content, statusText, token);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при чтении файла: " + contentFile, e);
+        }
+    }
+
+    /**
+     * Создает пост с большим содержимым. Содержимое читается из Reader и пишется в тело запроса
+     * через JsonGenerator по мере чтения, запрос отправляется фрагментами (chunked transfer).
+     * Ответ запрашивается без содержимого (_fields) и разбирается потоково, поэтому ни отправляемый,
+     * ни отрисованный сервером текст целиком в памяти не оказывается.
+     *
+     * @param titleText  Текст заголовка поста.
+     * @param content    Источник содержимого поста.
+     * @param statusText Статус поста.
+     * @param token      Токен авторизации.
+     * @return Созданный пост (ID, заголовок и статус, без содержимого).
+     */
+    public static DataPost createLargePost(String titleText, Reader content, String statusText, String token) {
+        return Resilience.call("POST", () -> {
+            Resilience.breaker().acquirePermission();
+            int[] statusCode = {-1};
+            try {
+                Resilience.limiter().acquire();
+                return streamLargePost(titleText, content, statusText, token, statusCode);
+            } catch (IOException e) {
+                throw new RuntimeException("Ошибка при потоковой отправке поста", e);
+            } finally {
+                // Как и в Resilience.filter: ошибкой сервиса считаются отсутствие ответа и коды 5xx.
+                if (statusCode[0] < 0 || statusCode[0] >= 500) {
+                    Resilience.breaker().onFailure();
+                } else {
+                    Resilience.breaker().onSuccess();
+                }
+            }
+        });
+    }
+
+    /**
+     * Источник тестового содержимого заданной длины: фрагмент повторяется, пока не наберется length символов.
+     *
+     * @param fragment Повторяемый фрагмент текста.
+     * @param length   Длина содержимого в символах.
+     * @return Reader, генерирующий содержимое на лету.
+     */
+    public static Reader repeatedContent(String fragment, long length) {
+        return new Reader() {
+            private long position;
+
+            @Override
+            public int read(char[] buffer, int offset, int count) {
+                if (position >= length) {
+                    return -1;
+                }
+                int n = (int) Math.min(count, length - position);
+                for (int i = 0; i < n; i++) {
+                    buffer[offset + i] = fragment.charAt((int) ((position + i) % fragment.length()));
+                }
+                position += n;
+                return n;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static DataPost streamLargePost(String titleText, Reader content, String statusText, String token,
+                                            int[] statusCodeOut) throws IOException {
+        String separator = POSTS_PATH.contains("?") ? "&" : "?";
+        URL url = new URL(API_URL + POSTS_PATH + separator + "_fields=id,status,title");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        long start = System.nanoTime();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setChunkedStreamingMode(STREAMING_CHUNK_SIZE);
+            connection.setConnectTimeout(Resilience.CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout((int) Math.max(1, Math.min(Resilience.READ_TIMEOUT_MS, Resilience.remainingMillis())));
+            connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+            connection.setRequestProperty("Authorization", "Basic " + token);
+            connection.setRequestProperty(EventLog.CORRELATION_HEADER, EventLog.newCorrelationId());
+
+            try (OutputStream out = connection.getOutputStream();
+                 JsonGenerator generator = MAPPER.getFactory().createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeStringField("title", titleText);
+                if (statusText != null) {
+                    generator.writeStringField("status", statusText);
+                }
+                generator.writeFieldName("content");
+                generator.writeString(content, -1);
+                generator.writeEndObject();
+            }
+
+            int statusCode = connection.getResponseCode();
+            statusCodeOut[0] = statusCode;
+            EventLog.http("POST", url.toString(), statusCode, start, null);
+            PerfRecorder.record(PerfRecorder.httpOperation("POST", url.toString()) + " (stream)", start);
+            if (statusCode != 201) {
+                try (InputStream error = connection.getErrorStream()) {
+                    DataError dataError = error == null ? new DataError() : MAPPER.readValue(error, DataError.class);
+                    throw new AssertionError("Expected status code <201> but was <" + statusCode + ">: "
+                            + dataError.getCode() + " " + dataError.getMessage());
+                }
+            }
+            try (InputStream in = connection.getInputStream()) {
+                DataPost post = readPostSkippingContent(in);
+                if (post.getId() == null) {
+                    throw new AssertionError("В ответе отсутствует ID созданного поста");
+                }
+                return post;
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Потоково разбирает пост из ответа: читает ID, статус и заголовок, остальные поля пропускает без буферизации.
+     */
+    private static DataPost readPostSkippingContent(InputStream in) throws IOException {
+        DataPost post = new DataPost();
+        try (JsonParser parser = MAPPER.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Ожидался JSON-объект поста");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("id".equals(field)) {
+                    post.setId(parser.getIntValue());
+                } else if ("status".equals(field)) {
+                    post.setStatus(parser.getText());
+                } else if ("title".equals(field) && value == JsonToken.START_OBJECT) {
+                    post.setTitle(MAPPER.readValue(parser, DataPost.Title.class));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return post;
+    }
+
+    /**
+     * Создает пользователя.
+     *
+     * @param requestBody Данные пользователя (логин, email, пароль, роли).
+     * @param token       Токен авторизации администратора.
+     * @return Созданный пользователь формата DataUser
+     */
+    public static DataUser createUser(DataUser requestBody, String token) {
+        return Resilience.call("POST", () -> given()
+                .spec(BaseRequests.requestSpec(token))
+                .body(requestBody)
+                .when()
+                .post(USERS_PATH)
+                .then()
+                .statusCode(201)
+                .body("id", notNullValue())
+                .extract().as(DataUser.class));
+    }
+
+    /**
+     * Ищет пользователя по логину.
+     *
+     * @param username Логин пользователя.
+     * @param token    Токен авторизации администратора.
+     * @return Пользователь или null, если не найден
+     */
+    public static DataUser findUserByLogin(String username, String token) {
+        List<DataUser> users = Resilience.call("GET", () -> given()
+                .spec(BaseRequests.requestSpec(token))
+                .queryParam("search", username)
+                .queryParam("context", "edit")
+                .when()
+                .get(USERS_PATH)
+                .then()
+                .statusCode(200)
+                .extract().body().jsonPath().getList("", DataUser.class));
+        return users.stream().filter(user -> username.equals(user.getUsername())).findFirst().orElse(null);
+    }
+
+    /**
+     * Получает текущего пользователя (владельца токена).
+     *
+     * @param token Токен авторизации.
+     * @return Текущий пользователь
+     */
+    public static DataUser getCurrentUser(String token) {
+        return Resilience.call("GET", () -> given()
+                .spec(BaseRequests.requestSpec(token))
+                .when()
+                .get(USERS_PATH + "/me")
+                .then()
+                .statusCode(200)
+                .extract().as(DataUser.class));
+    }
+
+    /**
+     * Обновляет пользователя (например, пароль и роли).
+     *
+     * @param userId      ID пользователя.
+     * @param requestBody Изменяемые поля.
+     * @param token       Токен авторизации администратора.
+     * @return Обновленный пользователь формата DataUser
+     */
+    public static DataUser updateUser(Integer userId, DataUser requestBody, String token) {
+        return Resilience.call("PUT", () -> given()
+                .spec(BaseRequests.requestSpec(token))
+                .queryParam("context", "edit")
+                .body(requestBody)
+                .when()
+                .put(USERS_PATH + "/" + userId)
+                .then()
+                .statusCode(200)
+                .extract().as(DataUser.class));
     }
-}
\ No newline at end of file
+}
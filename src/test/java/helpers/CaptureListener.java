@@ -0,0 +1,64 @@
+package helpers;
+
+import org.testng.IConfigurationListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Выгружает буфер RequestCapture в файл только при падении теста или конфигурационного метода.
+ * После каждого теста буфер очищается, поэтому в выгрузку попадают в основном запросы упавшего
+ * теста и его @BeforeMethod.
+ */
+public class CaptureListener implements ITestListener, IConfigurationListener {
+
+    private static final String CAPTURE_DIR = ParametersProvider.getProperty("captureDir");
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        RequestCapture.clear();
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        dump(result);
+        RequestCapture.clear();
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        RequestCapture.clear();
+    }
+
+    @Override
+    public void onConfigurationFailure(ITestResult result) {
+        dump(result);
+    }
+
+    private static void dump(ITestResult result) {
+        String capture = RequestCapture.dump();
+        if (capture.isEmpty()) {
+            return;
+        }
+        String name = result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName()
+                + "-" + result.getStartMillis() + ".log";
+        Path file = Paths.get(CAPTURE_DIR, name);
+        try {
+            File parent = file.toAbsolutePath().getParent().toFile();
+            if (!parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Не удалось создать каталог " + parent);
+            }
+            Files.write(file, capture.getBytes(StandardCharsets.UTF_8));
+            Reporter.log("Последние HTTP-запросы перед падением: " + file.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("[capture] Ошибка записи " + file + ": " + e);
+        }
+    }
+}
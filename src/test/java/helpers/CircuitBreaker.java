@@ -0,0 +1,77 @@
+package helpers;
+
+/**
+ * Простой circuit breaker: после заданного числа подряд идущих ошибок размыкается
+ * и сразу отклоняет вызовы, пока не истечет время ожидания. Затем пропускает один
+ * пробный вызов и по его результату снова замыкается или размыкается.
+ */
+public class CircuitBreaker {
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    /**
+     * @param name             имя для сообщений и метрик
+     * @param failureThreshold число ошибок подряд, после которого breaker размыкается (0 — выключен)
+     * @param openMillis       время в разомкнутом состоянии до пробного вызова
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+    }
+
+    /**
+     * Проверяет, можно ли выполнить вызов.
+     * Выбрасывает RuntimeException, если breaker разомкнут.
+     */
+    public synchronized void acquirePermission() {
+        if (failureThreshold <= 0 || state == State.CLOSED) {
+            return;
+        }
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return;
+        }
+        Metrics.increment(name + ".breaker.rejected");
+        throw new RuntimeException("Circuit breaker " + name + " разомкнут: сервис недоступен");
+    }
+
+    /**
+     * Фиксирует успешный вызов.
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            Metrics.increment(name + ".breaker.closed");
+        }
+    }
+
+    /**
+     * Фиксирует неудачный вызов и при необходимости размыкает breaker.
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (failureThreshold <= 0) {
+            return;
+        }
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold && state == State.CLOSED) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            Metrics.increment(name + ".breaker.trip");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package helpers;
+
+import pojo.DataPostDigest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Локальный расчет длины и SHA-256 содержимого поста в UTF-8 — так же, как их считает MySQL
+ * (LENGTH и SHA2(..., 256) для колонки в utf8mb4).
+ */
+public final class ContentDigest {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ContentDigest() {
+    }
+
+    /**
+     * Ожидаемое состояние поста для сравнения с DataBaseHelper.getPostDigestById.
+     *
+     * @param id      ID поста.
+     * @param title   Ожидаемый заголовок.
+     * @param content Ожидаемое содержание.
+     * @param status  Ожидаемый статус.
+     * @return Ожидаемый DataPostDigest.
+     */
+    public static DataPostDigest expected(Integer id, String title, String content, String status) {
+        if (content == null) {
+            return new DataPostDigest(id, title, status, null, null);
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return new DataPostDigest(id, title, status, (long) bytes.length, toHex(sha256().digest(bytes)));
+    }
+
+    /**
+     * Ожидаемое состояние поста с большим содержимым: содержимое читается и хешируется потоково.
+     *
+     * @param id      ID поста.
+     * @param title   Ожидаемый заголовок.
+     * @param content Источник ожидаемого содержания.
+     * @param status  Ожидаемый статус.
+     * @return Ожидаемый DataPostDigest.
+     */
+    public static DataPostDigest expected(Integer id, String title, Reader content, String status) {
+        MessageDigest digest = sha256();
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        CharBuffer chars = CharBuffer.allocate(8192);
+        ByteBuffer bytes = ByteBuffer.allocate(8192 * 3);
+        long length = 0;
+        try {
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                endOfInput = content.read(chars) < 0;
+                chars.flip();
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                chars.compact();
+                if (endOfInput) {
+                    encoder.flush(bytes);
+                }
+                bytes.flip();
+                length += bytes.remaining();
+                digest.update(bytes);
+                bytes.clear();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при чтении содержимого поста", e);
+        }
+        return new DataPostDigest(id, title, status, length, toHex(digest.digest()));
+    }
+
+    /**
+     * SHA-256 строки в UTF-8 в виде шестнадцатеричной строки в нижнем регистре.
+     *
+     * @param content Строка.
+     * @return Хеш или null, если строка null.
+     */
+    public static String sha256Hex(String content) {
+        return content == null ? null : toHex(sha256().digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 недоступен", e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        char[] result = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            result[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            result[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(result);
+    }
+}
@@ -1,20 +1,103 @@
 package helpers;
 
 import pojo.DataPost;
+import pojo.DataPostDigest;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public class DataBaseHelper {
 
     /**
      * Параметры подключения к базе данных берутся из файла настроек через класс ParametersProvider.
      */
-    private static final String DB_URL = ParametersProvider.getProperty("urlDB");
+    private static final String DB_URL = FaultProxy.dbUrl(ParametersProvider.getProperty("urlDB"));
     private static final String DB_USERNAME = ParametersProvider.getProperty("usernameDB");
     private static final String DB_PASSWORD = ParametersProvider.getProperty("passwordDB");
 
+    /**
+     * Максимальное число ID в одном списке IN при пакетных выборках.
+     */
+    private static final int IN_LIST_SIZE = 500;
+
+    /**
+     * Колонки выборки поста без тела: длина и SHA-256 содержимого считаются на стороне MySQL.
+     */
+    private static final String DIGEST_COLUMNS = "ID, post_title, post_status, LENGTH(post_content) AS content_length, SHA2(post_content, 256) AS content_sha256";
+
+    /**
+     * Простаивающие соединения для повторного использования. Размер задается параметром dbPoolSize;
+     * при 0 соединение открывается на каждый запрос.
+     */
+    private static final int POOL_SIZE = (int) ParametersProvider.getLongProperty("dbPoolSize", 0);
+    private static final BlockingQueue<Connection> POOL = new ArrayBlockingQueue<>(Math.max(1, POOL_SIZE));
+
+    /**
+     * Заранее открывает соединения пула (dbPoolSize), чтобы первые запросы не ждали подключения.
+     *
+     * @return число соединений в пуле
+     */
+    public static int warmUpPool() {
+        try {
+            while (POOL.size() < POOL_SIZE) {
+                Connection conn = DriverManager.getConnection(DB_URL, DB_USERNAME, DB_PASSWORD);
+                if (!POOL.offer(conn)) {
+                    closeQuietly(conn);
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("[db] Не удалось открыть соединение: " + e.getMessage());
+        }
+        return POOL.size();
+    }
+
+    /**
+     * Закрывает простаивающие соединения пула, например перед выгрузкой классов тестов в WarmRunner.
+     */
+    public static void closePool() {
+        for (Connection conn; (conn = POOL.poll()) != null; ) {
+            closeQuietly(conn);
+        }
+    }
+
+    /**
+     * Берет проверенное соединение из пула или открывает новое.
+     */
+    private static Connection acquire() throws SQLException {
+        for (Connection conn; (conn = POOL.poll()) != null; ) {
+            if (conn.isValid(1)) {
+                return conn;
+            }
+            closeQuietly(conn);
+        }
+        return DriverManager.getConnection(DB_URL, DB_USERNAME, DB_PASSWORD);
+    }
+
+    /**
+     * Возвращает соединение в пул; после ошибки или при заполненном пуле соединение закрывается.
+     */
+    private static void release(Connection conn, boolean broken) {
+        if (conn != null && (broken || POOL_SIZE == 0 || !POOL.offer(conn))) {
+            closeQuietly(conn);
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // Соединение уже недоступно.
+        }
+    }
+
     /**
      * Внутренний метод для выполнения SQL-запросов на обновление (INSERT, UPDATE, DELETE).
      * Открывает соединение с базой данных, готовит и выполняет SQL-запрос, освобождая ресурсы после выполнения.
@@ -23,14 +106,27 @@ public class DataBaseHelper {
      * @param params Массив параметров для заполнения в запросе
      */
     private void executeUpdate(String sql, Object... params) {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USERNAME, DB_PASSWORD); // Получаем соединение из пула
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
+        long start = System.nanoTime();
+        Connection conn = null;
+        boolean broken = false;
+        try {
+            conn = acquire(); // Получаем соединение из пула
+            try (PreparedStatement pstmt = conn.prepareStatement(EventLog.tagSql(sql))) {
+                for (int i = 0; i < params.length; i++) {
+                    pstmt.setObject(i + 1, params[i]);
+                }
+                pstmt.executeUpdate();
+            }
+            EventLog.sql(sql, start, null);
+            if (PerfRecorder.ENABLED) {
+                PerfRecorder.record(PerfRecorder.dbOperation(), start);
             }
-            pstmt.executeUpdate();
         } catch (SQLException e) {
+            broken = true;
+            EventLog.sql(sql, start, e);
             e.printStackTrace();
+        } finally {
+            release(conn, broken);
         }
     }
 
@@ -46,16 +142,29 @@ public class DataBaseHelper {
      */
     private <T> T executeQuery(String sql, RowMapper<T> rowMapper, Object... params) {
         T result = null;
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USERNAME, DB_PASSWORD);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
+        long start = System.nanoTime();
+        Connection conn = null;
+        boolean broken = false;
+        try {
+            conn = acquire();
+            try (PreparedStatement pstmt = conn.prepareStatement(EventLog.tagSql(sql))) {
+                for (int i = 0; i < params.length; i++) {
+                    pstmt.setObject(i + 1, params[i]);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    result = rowMapper.map(rs);
+                }
             }
-            try (ResultSet rs = pstmt.executeQuery()) {
-                result = rowMapper.map(rs);
+            EventLog.sql(sql, start, null);
+            if (PerfRecorder.ENABLED) {
+                PerfRecorder.record(PerfRecorder.dbOperation(), start);
             }
         } catch (SQLException e) {
+            broken = true;
+            EventLog.sql(sql, start, e);
             e.printStackTrace();
+        } finally {
+            release(conn, broken);
         }
         return result;
     }
@@ -117,4 +226,67 @@ public class DataBaseHelper {
             return null;
         }, id);
     }
-}
\ No newline at end of file
+
+    /**
+     * Метод для получения поста по его ID без содержимого: вместо post_content возвращаются его длина и SHA-256.
+     *
+     * @param id Уникальный идентификатор поста
+     * @return Объект DataPostDigest или null, если пост не найден
+     */
+    public DataPostDigest getPostDigestById(int id) {
+        String sql = "SELECT " + DIGEST_COLUMNS + " FROM wp_posts WHERE ID = ?";
+        return executeQuery(sql, rs -> rs.next() ? mapDigest(rs) : null, id);
+    }
+
+    /**
+     * Метод для получения нескольких постов без содержимого. Запросы выполняются пакетами по IN_LIST_SIZE ID.
+     *
+     * @param ids Идентификаторы постов
+     * @return Найденные посты по ID; отсутствующих в базе постов в результате нет
+     */
+    public Map<Integer, DataPostDigest> getPostDigestsByIds(Collection<Integer> ids) {
+        Map<Integer, DataPostDigest> result = new HashMap<>();
+        List<Integer> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += IN_LIST_SIZE) {
+            List<Integer> chunk = idList.subList(from, Math.min(from + IN_LIST_SIZE, idList.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT " + DIGEST_COLUMNS + " FROM wp_posts WHERE ID IN (" + placeholders + ")";
+            Map<Integer, DataPostDigest> rows = executeQuery(sql, rs -> {
+                Map<Integer, DataPostDigest> digests = new HashMap<>();
+                while (rs.next()) {
+                    DataPostDigest digest = mapDigest(rs);
+                    digests.put(digest.getId(), digest);
+                }
+                return digests;
+            }, chunk.toArray());
+            if (rows != null) {
+                result.putAll(rows);
+            }
+        }
+        return result;
+    }
+
+    private static DataPostDigest mapDigest(ResultSet rs) throws SQLException {
+        return new DataPostDigest(rs.getInt("ID"), rs.getString("post_title"), rs.getString("post_status"),
+                rs.getLong("content_length"), rs.getString("content_sha256"));
+    }
+
+    /**
+     * Метод для получения глобальных счетчиков MySQL (SHOW GLOBAL STATUS), например Threads_connected.
+     *
+     * @param names Имена переменных статуса
+     * @return Значения по имени; переменные, которых нет на сервере, в результат не попадают
+     */
+    public Map<String, Long> getGlobalStatus(String... names) {
+        String placeholders = String.join(", ", Collections.nCopies(names.length, "?"));
+        String sql = "SHOW GLOBAL STATUS WHERE Variable_name IN (" + placeholders + ")";
+        Map<String, Long> result = executeQuery(sql, rs -> {
+            Map<String, Long> status = new HashMap<>();
+            while (rs.next()) {
+                status.put(rs.getString(1), rs.getLong(2));
+            }
+            return status;
+        }, (Object[]) names);
+        return result == null ? Map.of() : result;
+    }
+}
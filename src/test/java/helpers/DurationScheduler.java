@@ -0,0 +1,173 @@
+package helpers;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Планировщик тестов по длительности прошлых запусков.
+ * Длительности методов (сумма по всем вызовам, в том числе из DataProvider) сохраняются в локальный
+ * файл со сглаживанием по предыдущим запускам. При следующем запуске методы упорядочиваются от самых
+ * долгих к самым коротким: при параллельном запуске свободный поток берет следующий по длительности
+ * метод (жадное LPT-распределение). Для новых методов используется медиана известных длительностей.
+ * <p>
+ * При запуске шардами (-Dshard.count=N -Dshard.index=i) методы распределяются по шардам тем же правилом,
+ * но по неизменному снимку длительностей shardDurationsFile (файл хранится в репозитории, его получают
+ * копированием durationsFile), чтобы все шарды на любых машинах получили одно и то же разбиение.
+ * Если снимка нет, метод попадает в шард по стабильному хэшу имени. Во время шардированного прогона
+ * локальный файл длительностей не перезаписывается; то же относится к итерациям soak-прогона.
+ */
+public class DurationScheduler implements IMethodInterceptor, ITestListener {
+
+    private static final Path DURATIONS_FILE = Paths.get(ParametersProvider.getProperty("durationsFile"));
+    private static final Path SHARD_DURATIONS_FILE = Paths.get(ParametersProvider.getProperty("shardDurationsFile"));
+    private static final long DEFAULT_DURATION_MS = ParametersProvider.getLongProperty("durationDefaultMs", 1_000);
+
+    /**
+     * Вес нового замера при сглаживании.
+     */
+    private static final double SMOOTHING = 0.5;
+
+    private static final int SHARD_COUNT = Integer.getInteger("shard.count", 1);
+    private static final int SHARD_INDEX = Integer.getInteger("shard.index", 0);
+
+    private final Map<String, AtomicLong> measured = new ConcurrentHashMap<>();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        List<IMethodInstance> selected = SHARD_COUNT <= 1 ? methods : shard(methods);
+        Properties history = load(DURATIONS_FILE);
+        return longestFirst(selected, history, median(history));
+    }
+
+    /**
+     * Отбирает методы текущего шарда по снимку длительностей или, если снимка нет, по хэшу имени.
+     */
+    private static List<IMethodInstance> shard(List<IMethodInstance> methods) {
+        Properties snapshot = load(SHARD_DURATIONS_FILE);
+        List<IMethodInstance> shard = new ArrayList<>();
+        if (snapshot.isEmpty()) {
+            for (IMethodInstance method : methods) {
+                if (Math.floorMod(key(method.getMethod()).hashCode(), SHARD_COUNT) == SHARD_INDEX) {
+                    shard.add(method);
+                }
+            }
+            return shard;
+        }
+
+        long fallback = median(snapshot);
+        long[] load = new long[SHARD_COUNT];
+        for (IMethodInstance method : longestFirst(methods, snapshot, fallback)) {
+            int target = 0;
+            for (int i = 1; i < SHARD_COUNT; i++) {
+                if (load[i] < load[target]) {
+                    target = i;
+                }
+            }
+            load[target] += expected(snapshot, method.getMethod(), fallback);
+            if (target == SHARD_INDEX) {
+                shard.add(method);
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * Упорядочивает методы от самых долгих к самым коротким; при равенстве — по имени, чтобы порядок
+     * не зависел от порядка обнаружения методов.
+     */
+    private static List<IMethodInstance> longestFirst(List<IMethodInstance> methods, Properties history, long fallback) {
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        ordered.sort(Comparator.comparingLong((IMethodInstance m) -> expected(history, m.getMethod(), fallback)).reversed()
+                .thenComparing(m -> key(m.getMethod())));
+        return ordered;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        if (measured.isEmpty() || SHARD_COUNT > 1 || SoakRunner.isNestedRun()) {
+            measured.clear();
+            return;
+        }
+        Properties history = load(DURATIONS_FILE);
+        measured.forEach((key, millis) -> {
+            String previous = history.getProperty(key);
+            long value = previous == null ? millis.get()
+                    : Math.round(SMOOTHING * millis.get() + (1 - SMOOTHING) * Long.parseLong(previous));
+            history.setProperty(key, Long.toString(value));
+        });
+        measured.clear();
+        save(history);
+    }
+
+    private void record(ITestResult result) {
+        measured.computeIfAbsent(key(result.getMethod()), k -> new AtomicLong())
+                .addAndGet(result.getEndMillis() - result.getStartMillis());
+    }
+
+    private static String key(ITestNGMethod method) {
+        return method.getTestClass().getRealClass().getName() + "#" + method.getMethodName();
+    }
+
+    private static long expected(Properties history, ITestNGMethod method, long fallback) {
+        String value = history.getProperty(key(method));
+        return value == null ? fallback : Long.parseLong(value);
+    }
+
+    private static long median(Properties history) {
+        long[] values = history.stringPropertyNames().stream().mapToLong(k -> Long.parseLong(history.getProperty(k))).toArray();
+        if (values.length == 0) {
+            return DEFAULT_DURATION_MS;
+        }
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    private static synchronized Properties load(Path file) {
+        Properties history = new Properties();
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                history.load(in);
+            } catch (IOException e) {
+                throw new RuntimeException("Ошибка при загрузке файла: " + file, e);
+            }
+        }
+        return history;
+    }
+
+    private static synchronized void save(Properties history) {
+        try (OutputStream out = Files.newOutputStream(DURATIONS_FILE)) {
+            history.store(out, "Длительность тестовых методов, мс (DurationScheduler)");
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при записи файла: " + DURATIONS_FILE, e);
+        }
+    }
+}
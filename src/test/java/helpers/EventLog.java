@@ -0,0 +1,306 @@
+package helpers;
+
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Идентификаторы корреляции и журнал событий в формате NDJSON.
+ * Каждый HTTP-запрос получает новый идентификатор (заголовок X-Correlation-ID), который становится
+ * текущим для потока; следующие за ним SQL-запросы DataBaseHelper помечаются тем же идентификатором
+ * (комментарием в тексте запроса и в журнале).
+ * <p>
+ * Поток теста только кладет событие в неблокирующую очередь; сериализацией и записью в файл
+ * занимается единственный фоновый поток.
+ */
+public final class EventLog {
+
+    /**
+     * Заголовок HTTP с идентификатором корреляции.
+     */
+    public static final String CORRELATION_HEADER = "X-Correlation-ID";
+
+    /**
+     * Пишется ли журнал событий.
+     */
+    public static final boolean ENABLED = ParametersProvider.getBooleanProperty("eventLogEnabled", false);
+
+    private static final Path FILE = Paths.get(ParametersProvider.getProperty("eventLogFile"));
+    private static final long CAPACITY = ParametersProvider.getLongProperty("eventLogCapacity", 100_000);
+
+    private static final String RUN_ID = Long.toHexString(ThreadLocalRandom.current().nextLong() & 0xFFFFFFFFL);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private static final ConcurrentLinkedQueue<Event> QUEUE = new ConcurrentLinkedQueue<>();
+    private static final AtomicLong PENDING = new AtomicLong();
+
+    /**
+     * Файл журнала; используется только фоновым потоком и хуком завершения под блокировкой класса.
+     */
+    private static Writer writer;
+
+    /**
+     * Событие журнала. Поля заполняются в потоке теста, текст формируется фоновым потоком.
+     */
+    private static final class Event {
+        private final long timestampMillis = System.currentTimeMillis();
+        private final String type;
+        private final String correlationId;
+        private final String thread;
+        private final String name;
+        private final long durationMicros;
+        private final int status;
+        private final String error;
+
+        private Event(String type, String correlationId, String name, long durationMicros, int status, String error) {
+            this.type = type;
+            this.correlationId = correlationId;
+            this.thread = Thread.currentThread().getName();
+            this.name = name;
+            this.durationMicros = durationMicros;
+            this.status = status;
+            this.error = error;
+        }
+    }
+
+    private static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        String correlationId = newCorrelationId();
+        requestSpec.header(CORRELATION_HEADER, correlationId);
+        long start = System.nanoTime();
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            http(requestSpec.getMethod(), requestSpec.getURI(), response.statusCode(), start, null);
+            return response;
+        } catch (Exception e) {
+            http(requestSpec.getMethod(), requestSpec.getURI(), -1, start, e);
+            throw e;
+        }
+    };
+
+    static {
+        if (ENABLED) {
+            Thread thread = new Thread(EventLog::writeLoop, "event-log-writer");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(EventLog::drainOnShutdown, "event-log-flush"));
+        }
+    }
+
+    private EventLog() {
+    }
+
+    /**
+     * Фильтр RestAssured: помечает запрос новым идентификатором корреляции и пишет событие с длительностью.
+     *
+     * @return фильтр
+     */
+    public static Filter filter() {
+        return FILTER;
+    }
+
+    /**
+     * Создает новый идентификатор корреляции и делает его текущим для потока.
+     *
+     * @return идентификатор
+     */
+    public static String newCorrelationId() {
+        String correlationId = RUN_ID + "-" + SEQUENCE.incrementAndGet();
+        CURRENT.set(correlationId);
+        return correlationId;
+    }
+
+    /**
+     * Текущий идентификатор корреляции потока.
+     *
+     * @return идентификатор или null, если поток еще не выполнял HTTP-запросов
+     */
+    public static String currentCorrelationId() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Делает идентификатор текущим для потока — например, в фоновом потоке, который выполняет
+     * работу, начатую в потоке теста.
+     *
+     * @param correlationId идентификатор или null
+     * @return предыдущий идентификатор потока, чтобы восстановить его после работы
+     */
+    public static String setCurrentCorrelationId(String correlationId) {
+        String previous = CURRENT.get();
+        if (correlationId == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(correlationId);
+        }
+        return previous;
+    }
+
+    /**
+     * Записывает событие HTTP-запроса.
+     *
+     * @param method     HTTP-метод
+     * @param uri        адрес запроса
+     * @param status     код ответа или -1, если ответа нет
+     * @param startNanos момент начала (System.nanoTime)
+     * @param error      ошибка или null
+     */
+    public static void http(String method, String uri, int status, long startNanos, Throwable error) {
+        if (ENABLED) {
+            enqueue(new Event("http", CURRENT.get(), method + " " + uri, micros(startNanos), status,
+                    error == null ? null : error.toString()));
+        }
+    }
+
+    /**
+     * Записывает событие SQL-запроса с текущим идентификатором корреляции.
+     *
+     * @param sql        текст запроса
+     * @param startNanos момент начала (System.nanoTime)
+     * @param error      ошибка или null
+     */
+    public static void sql(String sql, long startNanos, Throwable error) {
+        if (ENABLED) {
+            enqueue(new Event("sql", CURRENT.get(), sql, micros(startNanos), 0, error == null ? null : error.toString()));
+        }
+    }
+
+    /**
+     * Добавляет в начало SQL комментарий с текущим идентификатором корреляции, чтобы запрос можно было
+     * найти в processlist и журналах MySQL.
+     *
+     * @param sql текст запроса
+     * @return помеченный текст запроса
+     */
+    public static String tagSql(String sql) {
+        String correlationId = CURRENT.get();
+        return correlationId == null ? sql : "/* cid:" + correlationId + " */ " + sql;
+    }
+
+    private static long micros(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    private static void enqueue(Event event) {
+        if (PENDING.incrementAndGet() > CAPACITY) {
+            PENDING.decrementAndGet();
+            Metrics.increment("eventlog.dropped");
+            return;
+        }
+        QUEUE.offer(event);
+    }
+
+    private static void writeLoop() {
+        try {
+            Writer out = open();
+            synchronized (EventLog.class) {
+                writer = out;
+            }
+            while (true) {
+                if (!drain()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[eventlog] Ошибка записи журнала событий " + FILE + ": " + e);
+        }
+    }
+
+    private static void drainOnShutdown() {
+        try {
+            drain();
+        } catch (IOException e) {
+            System.err.println("[eventlog] Ошибка записи журнала событий " + FILE + ": " + e);
+        }
+    }
+
+    /**
+     * Записывает все события из очереди.
+     *
+     * @return были ли события
+     */
+    private static synchronized boolean drain() throws IOException {
+        Writer out = writer;
+        if (out == null) {
+            return false;
+        }
+        boolean written = false;
+        StringBuilder line = new StringBuilder(256);
+        for (Event event; (event = QUEUE.poll()) != null; ) {
+            PENDING.decrementAndGet();
+            line.setLength(0);
+            line.append("{\"ts\":").append(event.timestampMillis)
+                    .append(",\"type\":\"").append(event.type).append('"');
+            appendField(line, "cid", event.correlationId);
+            appendField(line, "thread", event.thread);
+            appendField(line, "name", event.name);
+            line.append(",\"durationUs\":").append(event.durationMicros);
+            if (event.status != 0) {
+                line.append(",\"status\":").append(event.status);
+            }
+            appendField(line, "error", event.error);
+            line.append("}\n");
+            out.write(line.toString());
+            written = true;
+        }
+        out.flush();
+        return written;
+    }
+
+    private static void appendField(StringBuilder line, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    private static Writer open() throws IOException {
+        File parent = FILE.toAbsolutePath().getParent().toFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Не удалось создать каталог " + parent);
+        }
+        return new BufferedWriter(Files.newBufferedWriter(FILE, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), 64 * 1024);
+    }
+}
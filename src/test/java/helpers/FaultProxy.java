@@ -0,0 +1,404 @@
+package helpers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Встроенный TCP-прокси для имитации медленной и ненадежной сети между тестами и WordPress/MySQL.
+ * Для каждого направления (к серверу и от сервера) задаются задержка и разброс задержки (линия задержки:
+ * блоки данных отправляются в порядке получения через latency ± jitter, пропускная способность при этом
+ * не падает), ограничение полосы, вероятность сброса соединения (RST) и вероятность «зависания» на stallMs.
+ * Сброс и зависание разыгрываются для каждого пересылаемого блока.
+ * <p>
+ * Прокси включается параметрами proxyApiEnabled и proxyDbEnabled: адреса apiUrl и urlDB переписываются
+ * на 127.0.0.1:порт прокси. Неисправности направлений задаются строками вида
+ * «latencyMs=50,jitterMs=10,bandwidthKbps=512,resetPercent=0.1,stallPercent=1,stallMs=3000» в параметрах
+ * proxyApiUpstream/proxyApiDownstream и proxyDbUpstream/proxyDbDownstream. Заголовок Host у HTTP-запросов
+ * при этом указывает на прокси.
+ */
+public class FaultProxy implements Closeable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    /**
+     * Объем линии задержки без ограничения полосы, когда произведение полосы на задержку не определено.
+     */
+    private static final long UNLIMITED_QUEUE_BYTES = 1024 * 1024;
+    private static final long ENQUEUE_POLL_MS = 100;
+    private static final Map<String, FaultProxy> STARTED = new ConcurrentHashMap<>();
+
+    /**
+     * Неисправности одного направления.
+     */
+    public static final class Faults {
+        private long latencyMs;
+        private long jitterMs;
+        private long bytesPerSecond;
+        private double resetProbability;
+        private double stallProbability;
+        private long stallMs;
+
+        /**
+         * Разбирает строку вида «latencyMs=50,jitterMs=10,bandwidthKbps=512,resetPercent=0.1,stallPercent=1,stallMs=3000».
+         * Пустая строка — без неисправностей.
+         *
+         * @param spec описание
+         * @return неисправности
+         */
+        public static Faults parse(String spec) {
+            Faults faults = new Faults();
+            for (String part : spec.split(",")) {
+                if (part.isBlank()) {
+                    continue;
+                }
+                String[] pair = part.split("=", 2);
+                if (pair.length != 2) {
+                    throw new RuntimeException("Некорректный параметр прокси: " + part);
+                }
+                String value = pair[1].trim();
+                switch (pair[0].trim()) {
+                    case "latencyMs":
+                        faults.latencyMs = Long.parseLong(value);
+                        break;
+                    case "jitterMs":
+                        faults.jitterMs = Long.parseLong(value);
+                        break;
+                    case "bandwidthKbps":
+                        faults.bytesPerSecond = Long.parseLong(value) * 1024 / 8;
+                        break;
+                    case "resetPercent":
+                        faults.resetProbability = Double.parseDouble(value) / 100;
+                        break;
+                    case "stallPercent":
+                        faults.stallProbability = Double.parseDouble(value) / 100;
+                        break;
+                    case "stallMs":
+                        faults.stallMs = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new RuntimeException("Неизвестный параметр прокси: " + pair[0]);
+                }
+            }
+            return faults;
+        }
+
+        private boolean isNone() {
+            return latencyMs == 0 && jitterMs == 0 && bytesPerSecond == 0 && resetProbability == 0 && stallProbability == 0;
+        }
+
+        /**
+         * Емкость линии задержки в блоках: произведение полосы на максимальную задержку, но не меньше двух блоков.
+         * Когда очередь заполнена, читающий поток ждет, и отправитель упирается в окно TCP, как в реальной сети.
+         */
+        private int queueCapacity(int chunkSize) {
+            long bytes = bytesPerSecond == 0 ? UNLIMITED_QUEUE_BYTES
+                    : bytesPerSecond * (latencyMs + jitterMs) / 1000;
+            return (int) Math.max(2, Math.min(Integer.MAX_VALUE, (bytes + chunkSize - 1) / chunkSize));
+        }
+    }
+
+    /**
+     * Блок данных в линии задержки; пустой массив означает конец потока.
+     */
+    private static final class Chunk {
+        private final byte[] data;
+        private final long dueNanos;
+
+        private Chunk(byte[] data, long dueNanos) {
+            this.data = data;
+            this.dueNanos = dueNanos;
+        }
+    }
+
+    /**
+     * Пара сокетов одного проксируемого соединения.
+     */
+    private final class Link {
+        private final Socket client;
+        private final Socket upstream;
+        private final AtomicInteger openDirections = new AtomicInteger(2);
+        private volatile boolean closed;
+
+        private Link(Socket client, Socket upstream) {
+            this.client = client;
+            this.upstream = upstream;
+        }
+
+        private void directionDone() {
+            if (openDirections.decrementAndGet() == 0) {
+                close();
+            }
+        }
+
+        private void reset() {
+            Metrics.increment("proxy." + name + ".reset");
+            try {
+                client.setSoLinger(true, 0);
+                upstream.setSoLinger(true, 0);
+            } catch (IOException e) {
+                // Сокет уже закрыт.
+            }
+            close();
+        }
+
+        private void close() {
+            closed = true;
+            closeQuietly(client);
+            closeQuietly(upstream);
+        }
+    }
+
+    private final String name;
+    private final String upstreamHost;
+    private final int upstreamPort;
+    private final Faults upstreamFaults;
+    private final Faults downstreamFaults;
+    private final ServerSocket server;
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /**
+     * Запускает прокси на свободном порту 127.0.0.1.
+     *
+     * @param name             имя для потоков и счетчиков
+     * @param upstreamHost     адрес сервера
+     * @param upstreamPort     порт сервера
+     * @param upstreamFaults   неисправности направления клиент → сервер
+     * @param downstreamFaults неисправности направления сервер → клиент
+     */
+    public FaultProxy(String name, String upstreamHost, int upstreamPort, Faults upstreamFaults, Faults downstreamFaults) {
+        this.name = name;
+        this.upstreamHost = upstreamHost;
+        this.upstreamPort = upstreamPort;
+        this.upstreamFaults = upstreamFaults;
+        this.downstreamFaults = downstreamFaults;
+        try {
+            server = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось запустить прокси " + name, e);
+        }
+        daemon(this::acceptLoop, "fault-proxy-" + name).start();
+    }
+
+    /**
+     * Адрес API с учетом прокси (proxyApiEnabled).
+     *
+     * @param url исходный адрес
+     * @return адрес прокси или исходный адрес, если прокси выключен
+     */
+    public static String apiUrl(String url) {
+        return route("Api", url, 80);
+    }
+
+    /**
+     * JDBC-адрес базы с учетом прокси (proxyDbEnabled).
+     *
+     * @param url исходный адрес
+     * @return адрес прокси или исходный адрес, если прокси выключен
+     */
+    public static String dbUrl(String url) {
+        return route("Db", url, 3306);
+    }
+
+    private static String route(String target, String url, int defaultPort) {
+        if (!ParametersProvider.getBooleanProperty("proxy" + target + "Enabled", false)) {
+            return url;
+        }
+        String prefix = url.startsWith("jdbc:") ? "jdbc:" : "";
+        URI uri = URI.create(url.substring(prefix.length()));
+        int port = uri.getPort() == -1 ? defaultPort : uri.getPort();
+        FaultProxy proxy = STARTED.computeIfAbsent(target, key -> new FaultProxy(key.toLowerCase(Locale.ROOT), uri.getHost(), port,
+                Faults.parse(ParametersProvider.getProperty("proxy" + key + "Upstream")),
+                Faults.parse(ParametersProvider.getProperty("proxy" + key + "Downstream"))));
+        return prefix + uri.toString().replaceFirst(Pattern.quote(uri.getRawAuthority()),
+                "127.0.0.1:" + proxy.getPort());
+    }
+
+    /**
+     * @return порт, на котором прокси принимает соединения
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(server);
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            Socket client;
+            try {
+                client = server.accept();
+            } catch (IOException e) {
+                return;
+            }
+            int id = connections.incrementAndGet();
+            Metrics.increment("proxy." + name + ".connections");
+            daemon(() -> open(client, id), "fault-proxy-" + name + "-" + id).start();
+        }
+    }
+
+    private void open(Socket client, int id) {
+        Socket upstream = new Socket();
+        try {
+            upstream.connect(new InetSocketAddress(upstreamHost, upstreamPort), Resilience.CONNECT_TIMEOUT_MS);
+            client.setTcpNoDelay(true);
+            upstream.setTcpNoDelay(true);
+        } catch (IOException e) {
+            closeQuietly(client);
+            closeQuietly(upstream);
+            return;
+        }
+        Link link = new Link(client, upstream);
+        String thread = "fault-proxy-" + name + "-" + id;
+        daemon(() -> pipe(link, client, upstream, upstreamFaults, thread + "-up"), thread + "-up").start();
+        pipe(link, upstream, client, downstreamFaults, thread + "-down");
+    }
+
+    /**
+     * Пересылает данные из source в target. Без неисправностей — простым копированием, иначе через
+     * линию задержки: текущий поток читает и ставит блоки в ограниченную очередь, отдельный поток отправляет
+     * их в срок. Сокеты закрывает только {@link Link}: по окончании обоих направлений или при ошибке.
+     */
+    private void pipe(Link link, Socket source, Socket target, Faults faults, String threadName) {
+        if (faults.isNone()) {
+            try {
+                InputStream in = source.getInputStream();
+                OutputStream out = target.getOutputStream();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                for (int read; (read = in.read(buffer)) != -1; ) {
+                    out.write(buffer, 0, read);
+                }
+                target.shutdownOutput();
+                link.directionDone();
+            } catch (IOException e) {
+                link.close();
+            }
+            return;
+        }
+
+        int bufferSize = faults.bytesPerSecond == 0 ? BUFFER_SIZE
+                : (int) Math.max(512, Math.min(BUFFER_SIZE, faults.bytesPerSecond / 50));
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(faults.queueCapacity(bufferSize));
+        daemon(() -> send(link, target, faults, queue), threadName + "-send").start();
+        byte[] buffer = new byte[bufferSize];
+        long lastDue = 0;
+        try {
+            InputStream in = source.getInputStream();
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                lastDue = Math.max(lastDue, dueNanos(faults));
+                byte[] data = new byte[read];
+                System.arraycopy(buffer, 0, data, 0, read);
+                if (!enqueue(link, queue, new Chunk(data, lastDue))) {
+                    return;
+                }
+            }
+            enqueue(link, queue, new Chunk(new byte[0], Math.max(lastDue, dueNanos(faults))));
+        } catch (IOException e) {
+            link.close();
+            queue.offer(new Chunk(null, 0));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            link.close();
+        }
+    }
+
+    /**
+     * Ставит блок в очередь, ожидая места. Если соединение тем временем закрыто (отправитель завершился
+     * и очередь больше не разбирается), прекращает ожидание.
+     *
+     * @return false, если соединение закрыто
+     */
+    private static boolean enqueue(Link link, BlockingQueue<Chunk> queue, Chunk chunk) throws InterruptedException {
+        while (!queue.offer(chunk, ENQUEUE_POLL_MS, TimeUnit.MILLISECONDS)) {
+            if (link.closed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void send(Link link, Socket target, Faults faults, BlockingQueue<Chunk> queue) {
+        long nextFreeNanos = 0;
+        try {
+            OutputStream out = target.getOutputStream();
+            while (true) {
+                Chunk chunk = queue.take();
+                if (chunk.data == null) {
+                    return;
+                }
+                sleepUntil(chunk.dueNanos);
+                if (chunk.data.length == 0) {
+                    target.shutdownOutput();
+                    link.directionDone();
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                if (random.nextDouble() < faults.resetProbability) {
+                    link.reset();
+                    return;
+                }
+                if (random.nextDouble() < faults.stallProbability) {
+                    Metrics.increment("proxy." + name + ".stall");
+                    TimeUnit.MILLISECONDS.sleep(faults.stallMs);
+                }
+                if (faults.bytesPerSecond > 0) {
+                    nextFreeNanos = Math.max(nextFreeNanos, System.nanoTime())
+                            + chunk.data.length * 1_000_000_000L / faults.bytesPerSecond;
+                    sleepUntil(nextFreeNanos);
+                }
+                out.write(chunk.data);
+                out.flush();
+            }
+        } catch (IOException e) {
+            link.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            link.close();
+        }
+    }
+
+    private static long dueNanos(Faults faults) {
+        long delayMs = faults.latencyMs;
+        if (faults.jitterMs > 0) {
+            delayMs += ThreadLocalRandom.current().nextLong(-faults.jitterMs, faults.jitterMs + 1);
+        }
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        for (long left; (left = deadlineNanos - System.nanoTime()) > 0; ) {
+            TimeUnit.NANOSECONDS.sleep(left);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Закрываем при ошибке или по окончании, исключение не нужно.
+        }
+    }
+}
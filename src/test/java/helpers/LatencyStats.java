@@ -0,0 +1,58 @@
+package helpers;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Сводка по выборке длительностей: число замеров и перцентили в миллисекундах.
+ */
+@Getter
+public class LatencyStats {
+    private final int count;
+    private final double p50;
+    private final double p95;
+    private final double p99;
+    private final double max;
+
+    private LatencyStats(int count, double p50, double p95, double p99, double max) {
+        this.count = count;
+        this.p50 = p50;
+        this.p95 = p95;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    /**
+     * Строит сводку по длительностям в наносекундах.
+     *
+     * @param nanos длительности (массив не изменяется)
+     * @return сводка
+     */
+    public static LatencyStats of(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return new LatencyStats(sorted.length, percentile(sorted, 0.50), percentile(sorted, 0.95),
+                percentile(sorted, 0.99), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    /**
+     * Перцентиль отсортированной выборки методом ближайшего ранга, в миллисекундах.
+     *
+     * @param sorted   отсортированные длительности в наносекундах
+     * @param fraction доля (например, 0.95)
+     * @return значение перцентиля или 0 для пустой выборки
+     */
+    public static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms", count, p50, p95, p99, max);
+    }
+}
@@ -0,0 +1,66 @@
+package helpers;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики событий тестового прогона (повторы запросов, срабатывания circuit breaker и т.п.).
+ * Потокобезопасны и не блокируют вызывающий поток.
+ */
+public final class Metrics {
+
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Увеличивает счетчик на единицу.
+     *
+     * @param name имя счетчика
+     */
+    public static void increment(String name) {
+        add(name, 1);
+    }
+
+    /**
+     * Увеличивает счетчик на заданную величину.
+     *
+     * @param name  имя счетчика
+     * @param delta величина приращения
+     */
+    public static void add(String name, long delta) {
+        COUNTERS.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Текущее значение счетчика.
+     *
+     * @param name имя счетчика
+     * @return значение или 0, если счетчик не создавался
+     */
+    public static long get(String name) {
+        LongAdder counter = COUNTERS.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Удаляет все счетчики, например перед очередным прогоном в той же JVM.
+     */
+    public static void reset() {
+        COUNTERS.clear();
+    }
+
+    /**
+     * Снимок всех счетчиков, отсортированный по имени.
+     *
+     * @return имя счетчика и его значение
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> result = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> result.put(name, counter.sum()));
+        return result;
+    }
+}
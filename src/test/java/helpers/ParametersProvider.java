@@ -98,4 +98,35 @@ public final class ParametersProvider {
         }
         return "";
     }
-}
\ No newline at end of file
+
+    /**
+     * Получить целочисленное значение свойства по ключу.
+     *
+     * @param key          ключ свойства
+     * @param defaultValue значение, если свойство не задано
+     * @return значение свойства или значение по умолчанию
+     */
+    public static long getLongProperty(final String key, final long defaultValue) {
+        String value = getProperty(key).trim();
+        if (value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Некорректное числовое значение свойства: " + key, e);
+        }
+    }
+
+    /**
+     * Получить логическое значение свойства по ключу.
+     *
+     * @param key          ключ свойства
+     * @param defaultValue значение, если свойство не задано
+     * @return значение свойства или значение по умолчанию
+     */
+    public static boolean getBooleanProperty(final String key, final boolean defaultValue) {
+        String value = getProperty(key).trim();
+        return value.isEmpty() ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,274 @@
+package helpers;
+
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import pojo.DataPerfBaseline;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Контроль производительности по сохраненной базовой линии.
+ * Единица сравнения — прогон: для каждой операции PerfRecorder за прогон считаются p95 длительности
+ * и пропускная способность (вызовов в секунду за охват операции по часам). В режиме record сводка прогона
+ * добавляется в файл perfBaselineFile (JSON с номером версии формата; файл предполагается хранить
+ * в репозитории), хранятся последние perfBaselineRuns прогонов — базовую линию записывают несколькими
+ * прогонами подряд. В режиме compare сводка текущего прогона сравнивается со средним по базовым прогонам.
+ * Разброс между прогонами оценивается бутстрэпом по прогонам базовой линии: сколько отдельный прогон
+ * отклоняется от среднего по пересобранной с возвращением выборке прогонов. Регрессией считается отклонение,
+ * превышающее и допуск, и этот шум с уровнем perfConfidencePercent; пока базовых прогонов меньше
+ * perfMinRuns, используется только допуск. Состав тестов при записи и сравнении должен совпадать:
+ * пропускная способность зависит от того, как часто прогон вызывает операцию.
+ */
+public final class PerfGate {
+
+    /**
+     * Версия формата файла базовой линии.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    private static final Path BASELINE_FILE = Paths.get(ParametersProvider.getProperty("perfBaselineFile"));
+    private static final double P95_TOLERANCE = ParametersProvider.getLongProperty("perfP95TolerancePercent", 15) / 100.0;
+    private static final double THROUGHPUT_TOLERANCE = ParametersProvider.getLongProperty("perfThroughputTolerancePercent", 15) / 100.0;
+    private static final double CONFIDENCE = ParametersProvider.getLongProperty("perfConfidencePercent", 95) / 100.0;
+    private static final int MIN_SAMPLES = (int) ParametersProvider.getLongProperty("perfMinSamples", 30);
+    private static final int BASELINE_RUNS = (int) Math.max(1, ParametersProvider.getLongProperty("perfBaselineRuns", 5));
+    private static final int MIN_RUNS = (int) ParametersProvider.getLongProperty("perfMinRuns", 3);
+    private static final int ITERATIONS = (int) ParametersProvider.getLongProperty("perfBootstrapIterations", 1_000);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Итог проверки.
+     */
+    public static final class Result {
+        private final boolean regressed;
+        private final String report;
+
+        private Result(boolean regressed, String report) {
+            this.regressed = regressed;
+            this.report = report;
+        }
+
+        public boolean isRegressed() {
+            return regressed;
+        }
+
+        public String getReport() {
+            return report;
+        }
+    }
+
+    private PerfGate() {
+    }
+
+    /**
+     * Выполняет действие режима perfMode над замерами прогона: record — добавляет прогон в базовую линию,
+     * compare — сравнивает с ней.
+     *
+     * @return итог или null при perfMode=off
+     */
+    public static Result finish() {
+        switch (PerfRecorder.MODE) {
+            case "record":
+                DataPerfBaseline baseline = append(Files.exists(BASELINE_FILE) ? read() : null,
+                        toRun(PerfRecorder.snapshot()));
+                save(baseline);
+                return new Result(false, "[perf] Прогон добавлен в базовую линию " + BASELINE_FILE.toAbsolutePath()
+                        + ", прогонов: " + baseline.getRuns().size() + " из " + BASELINE_RUNS
+                        + ", операций: " + baseline.getRuns().get(baseline.getRuns().size() - 1).getOperations().size());
+            case "compare":
+                return compare(load(), PerfRecorder.snapshot());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Сравнивает замеры прогона с базовой линией.
+     *
+     * @param baseline базовая линия
+     * @param current  замеры текущего прогона
+     * @return итог с построчным отчетом по операциям
+     */
+    public static Result compare(DataPerfBaseline baseline, Map<String, PerfRecorder.Sample> current) {
+        List<DataPerfBaseline.Run> runs = baseline.getRuns();
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "[perf] Сравнение с базовой линией %s (прогонов: %d, последний от %s; допуск: p95 +%.0f%%, "
+                        + "пропускная способность -%.0f%%, уровень %.0f%%)%n",
+                BASELINE_FILE, runs.size(), runs.isEmpty() ? "-" : runs.get(runs.size() - 1).getRecordedAt(),
+                P95_TOLERANCE * 100, THROUGHPUT_TOLERANCE * 100, CONFIDENCE * 100));
+        boolean regressed = false;
+        Random random = new Random(42);
+        TreeSet<String> names = new TreeSet<>(current.keySet());
+        for (DataPerfBaseline.Run run : runs) {
+            names.addAll(run.getOperations().keySet());
+        }
+        for (String name : names) {
+            List<DataPerfBaseline.Operation> base = new ArrayList<>();
+            for (DataPerfBaseline.Run run : runs) {
+                DataPerfBaseline.Operation operation = run.getOperations().get(name);
+                if (operation != null && operation.getCount() >= MIN_SAMPLES) {
+                    base.add(operation);
+                }
+            }
+            PerfRecorder.Sample now = current.get(name);
+            report.append("  ").append(name).append(": ");
+            if (base.isEmpty()) {
+                report.append("нет в базовой линии или мало замеров в ее прогонах\n");
+                continue;
+            }
+            if (now == null || now.getNanos().length < MIN_SAMPLES) {
+                report.append(String.format(Locale.ROOT, "мало замеров в текущем прогоне (%d, нужно %d)%n",
+                        now == null ? 0 : now.getNanos().length, MIN_SAMPLES));
+                continue;
+            }
+            double[] baseP95 = base.stream().mapToDouble(DataPerfBaseline.Operation::getP95Ms).toArray();
+            double[] baseOps = base.stream().mapToDouble(DataPerfBaseline.Operation::getOpsPerSecond).toArray();
+            double nowP95 = p95(now.getNanos());
+            double nowOps = now.getOpsPerSecond();
+            double p95Ratio = nowP95 / mean(baseP95);
+            double opsRatio = nowOps / mean(baseOps);
+
+            // Границы шума: насколько отдельный прогон отклоняется от среднего по прогонам базовой линии.
+            boolean noiseKnown = base.size() >= MIN_RUNS;
+            double p95Limit = noiseKnown ? runNoise(baseP95, CONFIDENCE, random) : 1;
+            double opsLimit = noiseKnown ? runNoise(baseOps, 1 - CONFIDENCE, random) : 1;
+            boolean p95Regressed = p95Ratio > 1 + P95_TOLERANCE && p95Ratio > p95Limit;
+            boolean throughputRegressed = opsRatio < 1 - THROUGHPUT_TOLERANCE && opsRatio < opsLimit;
+            report.append(String.format(Locale.ROOT, "p95 %.1f → %.1f мс (%s, шум %s), оп/с %.2f → %.2f (%s, шум %s)",
+                    mean(baseP95), nowP95, percent(p95Ratio), noiseKnown ? "до " + percent(p95Limit) : "неизвестен",
+                    mean(baseOps), nowOps, percent(opsRatio), noiseKnown ? "до " + percent(opsLimit) : "неизвестен"));
+            if (!noiseKnown) {
+                report.append(String.format(Locale.ROOT, " [прогонов базовой линии %d из %d, сравнение только по допуску]",
+                        base.size(), MIN_RUNS));
+            }
+            if (p95Regressed) {
+                report.append(" РЕГРЕССИЯ p95");
+            }
+            if (throughputRegressed) {
+                report.append(" РЕГРЕССИЯ пропускной способности");
+            }
+            report.append('\n');
+            regressed |= p95Regressed || throughputRegressed;
+        }
+        return new Result(regressed, report.toString());
+    }
+
+    /**
+     * Квантиль отношения «отдельный прогон / среднее по прогонам»: на каждой из ITERATIONS итераций прогоны
+     * пересобираются с возвращением, и случайный прогон делится на среднее пересобранной выборки.
+     */
+    private static double runNoise(double[] runs, double quantile, Random random) {
+        double[] ratios = new double[ITERATIONS];
+        double[] resample = new double[runs.length];
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (int j = 0; j < resample.length; j++) {
+                resample[j] = runs[random.nextInt(runs.length)];
+            }
+            ratios[i] = runs[random.nextInt(runs.length)] / mean(resample);
+        }
+        Arrays.sort(ratios);
+        return ratios[(int) Math.round(quantile * (ITERATIONS - 1))];
+    }
+
+    /**
+     * p95 в миллисекундах.
+     */
+    private static double p95(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return LatencyStats.percentile(sorted, 0.95);
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static String percent(double ratio) {
+        return String.format(Locale.ROOT, "%+.1f%%", (ratio - 1) * 100);
+    }
+
+    private static DataPerfBaseline.Run toRun(Map<String, PerfRecorder.Sample> samples) {
+        Map<String, DataPerfBaseline.Operation> operations = new TreeMap<>();
+        samples.forEach((name, sample) -> operations.put(name, DataPerfBaseline.Operation.builder()
+                .count(sample.getCount())
+                .spanNanos(sample.getSpanNanos())
+                .p95Ms(sample.getNanos().length == 0 ? 0 : p95(sample.getNanos()))
+                .opsPerSecond(sample.getOpsPerSecond())
+                .build()));
+        return DataPerfBaseline.Run.builder()
+                .recordedAt(OffsetDateTime.now().toString())
+                .operations(operations)
+                .build();
+    }
+
+    /**
+     * Добавляет прогон к базовой линии, оставляя последние BASELINE_RUNS прогонов. Базовая линия другой
+     * версии формата или другого стенда начинается заново.
+     */
+    private static DataPerfBaseline append(DataPerfBaseline previous, DataPerfBaseline.Run run) {
+        String apiUrl = ParametersProvider.getProperty("apiUrl");
+        List<DataPerfBaseline.Run> runs = new ArrayList<>();
+        if (previous != null && previous.getVersion() == FORMAT_VERSION && apiUrl.equals(previous.getApiUrl())
+                && previous.getRuns() != null) {
+            runs.addAll(previous.getRuns());
+        }
+        runs.add(run);
+        return DataPerfBaseline.builder()
+                .version(FORMAT_VERSION)
+                .apiUrl(apiUrl)
+                .runs(new ArrayList<>(runs.subList(Math.max(0, runs.size() - BASELINE_RUNS), runs.size())))
+                .build();
+    }
+
+    private static void save(DataPerfBaseline baseline) {
+        try {
+            File parent = BASELINE_FILE.toAbsolutePath().getParent().toFile();
+            if (!parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Не удалось создать каталог " + parent);
+            }
+            DefaultPrettyPrinter printer = new DefaultPrettyPrinter().withArrayIndenter(DefaultPrettyPrinter.NopIndenter.instance);
+            MAPPER.writer(printer).writeValue(BASELINE_FILE.toFile(), baseline);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при записи базовой линии: " + BASELINE_FILE, e);
+        }
+    }
+
+    private static DataPerfBaseline load() {
+        if (!Files.exists(BASELINE_FILE)) {
+            throw new RuntimeException("Базовая линия не найдена: " + BASELINE_FILE.toAbsolutePath()
+                    + ". Запишите ее прогонами с perfMode=record");
+        }
+        DataPerfBaseline baseline = read();
+        if (baseline.getVersion() != FORMAT_VERSION || baseline.getRuns() == null) {
+            throw new RuntimeException("Неподдерживаемая версия базовой линии " + baseline.getVersion()
+                    + " (ожидается " + FORMAT_VERSION + "), перезапишите ее прогонами с perfMode=record");
+        }
+        return baseline;
+    }
+
+    private static DataPerfBaseline read() {
+        try {
+            return MAPPER.readValue(BASELINE_FILE.toFile(), DataPerfBaseline.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при чтении базовой линии: " + BASELINE_FILE, e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package helpers;
+
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Сбор длительностей операций для контроля производительности (PerfGate).
+ * HTTP-запросы группируются по методу и маршруту REST (числовые ID заменяются на {id}),
+ * запросы DataBaseHelper — по имени его публичного метода. Для каждой операции хранится
+ * равномерная выборка длительностей фиксированного размера (reservoir sampling), число вызовов,
+ * их суммарная длительность и охват по часам: от начала первого вызова до конца последнего. Фильтр стоит последним в цепочке, ближе всего к сети, поэтому ожидание
+ * лимита частоты и circuit breaker в замеры не попадают.
+ * <p>
+ * При perfMode=off фильтр и record ничего не делают.
+ */
+public final class PerfRecorder {
+
+    /**
+     * Режим: off, record (записать базовую линию) или compare (сравнить с ней).
+     * Параметр perfMode можно переопределить системным свойством (-DperfMode=compare).
+     */
+    public static final String MODE = modeProperty();
+
+    /**
+     * Ведется ли сбор длительностей.
+     */
+    public static final boolean ENABLED = !"off".equals(MODE);
+
+    private static final int RESERVOIR_SIZE = (int) ParametersProvider.getLongProperty("perfReservoirSize", 2_000);
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private static final Map<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+
+    /**
+     * Замеры одной операции.
+     */
+    private static final class Operation {
+        private final long[] reservoir = new long[RESERVOIR_SIZE];
+        private long count;
+        private long totalNanos;
+        private long firstStartNanos;
+        private long lastEndNanos;
+
+        private synchronized void add(long startNanos, long nanos) {
+            if (count == 0 || startNanos - firstStartNanos < 0) {
+                firstStartNanos = startNanos;
+            }
+            if (count == 0 || startNanos + nanos - lastEndNanos > 0) {
+                lastEndNanos = startNanos + nanos;
+            }
+            if (count < reservoir.length) {
+                reservoir[(int) count] = nanos;
+            } else {
+                long slot = ThreadLocalRandom.current().nextLong(count + 1);
+                if (slot < reservoir.length) {
+                    reservoir[(int) slot] = nanos;
+                }
+            }
+            count++;
+            totalNanos += nanos;
+        }
+
+        private synchronized Sample sample() {
+            return new Sample(count, totalNanos, lastEndNanos - firstStartNanos,
+                    Arrays.copyOf(reservoir, (int) Math.min(count, reservoir.length)));
+        }
+    }
+
+    /**
+     * Снимок замеров операции.
+     */
+    public static final class Sample {
+        private final long count;
+        private final long totalNanos;
+        private final long spanNanos;
+        private final long[] nanos;
+
+        private Sample(long count, long totalNanos, long spanNanos, long[] nanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.spanNanos = spanNanos;
+            this.nanos = nanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return время по часам от начала первого вызова до конца последнего, нс
+         */
+        public long getSpanNanos() {
+            return spanNanos;
+        }
+
+        /**
+         * Пропускная способность: вызовов в секунду за охват операции по часам. В отличие от 1 / средней
+         * длительности падает и при потере параллельности (очереди, блокировки), даже если каждый вызов не медленнее.
+         *
+         * @return операций в секунду или 0, если охват нулевой
+         */
+        public double getOpsPerSecond() {
+            return spanNanos <= 0 ? 0 : count * 1e9 / spanNanos;
+        }
+
+        /**
+         * @return выборка длительностей в наносекундах (не более perfReservoirSize)
+         */
+        public long[] getNanos() {
+            return nanos;
+        }
+    }
+
+    private static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        if (!ENABLED) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        record(httpOperation(requestSpec.getMethod(), requestSpec.getURI()), start);
+        return response;
+    };
+
+    private PerfRecorder() {
+    }
+
+    /**
+     * Фильтр RestAssured, замеряющий каждую попытку HTTP-запроса.
+     *
+     * @return фильтр
+     */
+    public static Filter filter() {
+        return FILTER;
+    }
+
+    /**
+     * Записывает длительность операции, начавшейся в startNanos.
+     *
+     * @param operation  имя операции
+     * @param startNanos момент начала (System.nanoTime)
+     */
+    public static void record(String operation, long startNanos) {
+        if (ENABLED) {
+            long nanos = System.nanoTime() - startNanos;
+            OPERATIONS.computeIfAbsent(operation, key -> new Operation()).add(startNanos, nanos);
+        }
+    }
+
+    /**
+     * Имя HTTP-операции: метод и маршрут REST без числовых ID, например «HTTP PUT /wp/v2/posts/{id}».
+     *
+     * @param method HTTP-метод
+     * @param uri    адрес запроса
+     * @return имя операции
+     */
+    public static String httpOperation(String method, String uri) {
+        String route;
+        int routeStart = uri.indexOf("rest_route=");
+        if (routeStart >= 0) {
+            int routeEnd = uri.indexOf('&', routeStart);
+            route = URLDecoder.decode(uri.substring(routeStart + "rest_route=".length(), routeEnd < 0 ? uri.length() : routeEnd),
+                    StandardCharsets.UTF_8);
+        } else {
+            int query = uri.indexOf('?');
+            route = query < 0 ? uri : uri.substring(0, query);
+        }
+        return "HTTP " + method + " " + NUMERIC_SEGMENT.matcher(route).replaceAll("/{id}");
+    }
+
+    /**
+     * Имя операции базы данных по вызывающему публичному методу DataBaseHelper, например «DB getPostById».
+     *
+     * @return имя операции
+     */
+    public static String dbOperation() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().equals(DataBaseHelper.class.getName())
+                        && !frame.getMethodName().startsWith("execute"))
+                .findFirst()
+                .map(frame -> "DB " + frame.getMethodName())
+                .orElse("DB query"));
+    }
+
+    /**
+     * Удаляет замеры всех операций, например перед очередным прогоном в той же JVM.
+     */
+    public static void reset() {
+        OPERATIONS.clear();
+    }
+
+    /**
+     * Снимок замеров всех операций, отсортированный по имени.
+     *
+     * @return имя операции и ее замеры
+     */
+    public static Map<String, Sample> snapshot() {
+        Map<String, Sample> result = new TreeMap<>();
+        OPERATIONS.forEach((name, operation) -> result.put(name, operation.sample()));
+        return result;
+    }
+
+    private static String modeProperty() {
+        String mode = System.getProperty("perfMode", ParametersProvider.getProperty("perfMode")).trim().toLowerCase(Locale.ROOT);
+        if (mode.isEmpty()) {
+            return "off";
+        }
+        if (!mode.equals("off") && !mode.equals("record") && !mode.equals("compare")) {
+            throw new RuntimeException("Неизвестный режим perfMode: " + mode + " (ожидается off, record или compare)");
+        }
+        return mode;
+    }
+}
@@ -0,0 +1,203 @@
+package helpers;
+
+import pojo.DataPost;
+
+import java.util.Collection;
+
+/**
+ * Индекс постов для проверок вхождения: множество ID на примитивном int-массиве с открытой адресацией
+ * и хэш-таблица «заголовок (rendered) → ID». Проверки выполняются за O(1) без упаковки int в Integer
+ * и без создания промежуточных списков. Индекс можно пополнять постранично по мере получения ответов.
+ * <p>
+ * Не потокобезопасен.
+ */
+public final class PostIndex {
+
+    /**
+     * Значение, возвращаемое idByTitle при отсутствии заголовка.
+     */
+    public static final int NO_ID = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Пустая ячейка множества ID. ID = 0 хранится отдельным флагом.
+     */
+    private static final int EMPTY = 0;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int idCount;
+    private boolean hasZeroId;
+
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private int[] titleIds = new int[INITIAL_CAPACITY];
+    private int titleCount;
+
+    /**
+     * Строит индекс по списку постов.
+     *
+     * @param posts посты
+     * @return индекс
+     */
+    public static PostIndex of(Collection<DataPost> posts) {
+        return new PostIndex().addAll(posts);
+    }
+
+    /**
+     * Добавляет страницу постов.
+     *
+     * @param posts посты
+     * @return этот индекс
+     */
+    public PostIndex addAll(Collection<DataPost> posts) {
+        for (DataPost post : posts) {
+            add(post);
+        }
+        return this;
+    }
+
+    /**
+     * Добавляет пост. Посты без ID пропускаются; при повторе заголовка сохраняется первый ID.
+     *
+     * @param post пост
+     * @return этот индекс
+     */
+    public PostIndex add(DataPost post) {
+        if (post.getId() == null) {
+            return this;
+        }
+        int id = post.getId();
+        addId(id);
+        if (post.getTitle() != null && post.getTitle().getRendered() != null) {
+            putTitle(post.getTitle().getRendered(), id);
+        }
+        return this;
+    }
+
+    /**
+     * @param id ID поста
+     * @return есть ли пост с таким ID
+     */
+    public boolean containsId(int id) {
+        if (id == EMPTY) {
+            return hasZeroId;
+        }
+        int mask = ids.length - 1;
+        for (int i = mix(id) & mask; ids[i] != EMPTY; i = (i + 1) & mask) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param title заголовок (rendered)
+     * @return есть ли пост с таким заголовком
+     */
+    public boolean containsTitle(String title) {
+        return idByTitle(title) != NO_ID;
+    }
+
+    /**
+     * @param title заголовок (rendered)
+     * @return ID первого поста с таким заголовком или NO_ID
+     */
+    public int idByTitle(String title) {
+        if (title == null) {
+            return NO_ID;
+        }
+        int mask = titles.length - 1;
+        for (int i = mix(title.hashCode()) & mask; titles[i] != null; i = (i + 1) & mask) {
+            if (titles[i].equals(title)) {
+                return titleIds[i];
+            }
+        }
+        return NO_ID;
+    }
+
+    /**
+     * @return количество различных ID
+     */
+    public int size() {
+        return hasZeroId ? idCount + 1 : idCount;
+    }
+
+    private void addId(int id) {
+        if (id == EMPTY) {
+            hasZeroId = true;
+            return;
+        }
+        int mask = ids.length - 1;
+        int i = mix(id) & mask;
+        for (; ids[i] != EMPTY; i = (i + 1) & mask) {
+            if (ids[i] == id) {
+                return;
+            }
+        }
+        ids[i] = id;
+        if (++idCount * 2 > ids.length) {
+            growIds();
+        }
+    }
+
+    private void growIds() {
+        int[] old = ids;
+        ids = new int[old.length * 2];
+        int mask = ids.length - 1;
+        for (int id : old) {
+            if (id != EMPTY) {
+                int i = mix(id) & mask;
+                while (ids[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                ids[i] = id;
+            }
+        }
+    }
+
+    private void putTitle(String title, int id) {
+        int mask = titles.length - 1;
+        int i = mix(title.hashCode()) & mask;
+        for (; titles[i] != null; i = (i + 1) & mask) {
+            if (titles[i].equals(title)) {
+                return;
+            }
+        }
+        titles[i] = title;
+        titleIds[i] = id;
+        if (++titleCount * 2 > titles.length) {
+            growTitles();
+        }
+    }
+
+    private void growTitles() {
+        String[] oldTitles = titles;
+        int[] oldIds = titleIds;
+        titles = new String[oldTitles.length * 2];
+        titleIds = new int[oldTitles.length * 2];
+        int mask = titles.length - 1;
+        for (int j = 0; j < oldTitles.length; j++) {
+            if (oldTitles[j] != null) {
+                int i = mix(oldTitles[j].hashCode()) & mask;
+                while (titles[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                titles[i] = oldTitles[j];
+                titleIds[i] = oldIds[j];
+            }
+        }
+    }
+
+    /**
+     * Перемешивание битов (финализатор MurmurHash3), чтобы последовательные ID не образовывали кластеры.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,60 @@
+package helpers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket: ограничивает число исходящих запросов в секунду.
+ * Емкость корзины равна лимиту, то есть допускается всплеск не больше одной секунды запросов.
+ */
+public class RateLimiter {
+
+    private final String name;
+    private final double permitsPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    /**
+     * @param name              имя для метрик
+     * @param permitsPerSecond  лимит запросов в секунду (0 — без ограничения)
+     */
+    public RateLimiter(String name, long permitsPerSecond) {
+        this.name = name;
+        this.permitsPerNano = permitsPerSecond / 1e9;
+        this.capacity = permitsPerSecond;
+        this.tokens = permitsPerSecond;
+    }
+
+    /**
+     * Забирает один токен, при необходимости ожидая его появления.
+     */
+    public void acquire() {
+        if (capacity <= 0) {
+            return;
+        }
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+        Metrics.increment(name + ".ratelimit.throttled");
+        Metrics.add(name + ".ratelimit.waitMs", TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Ожидание лимита запросов прервано", e);
+        }
+    }
+
+    /**
+     * Резервирует токен и возвращает время, которое нужно подождать до его появления.
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) (-tokens / permitsPerNano);
+    }
+}
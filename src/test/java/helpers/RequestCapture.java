@@ -0,0 +1,178 @@
+package helpers;
+
+import io.restassured.filter.Filter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Кольцевой буфер последних HTTP-запросов и ответов потока.
+ * Фильтр только сохраняет ссылки на уже существующие объекты запроса и ответа в заранее выделенные
+ * ячейки, поэтому почти ничего не стоит; текст (заголовки и обрезанные тела) формируется лишь
+ * при выгрузке, то есть когда тест упал.
+ */
+public final class RequestCapture {
+
+    /**
+     * Размер буфера на поток (0 — захват выключен) и максимальная длина тела в выгрузке.
+     */
+    public static final int SIZE = (int) ParametersProvider.getLongProperty("captureSize", 20);
+    private static final int BODY_LIMIT = (int) ParametersProvider.getLongProperty("captureBodyLimit", 4096);
+
+    /**
+     * Ячейка буфера. Переиспользуется при перезаписи.
+     */
+    private static final class Entry {
+        private long timestampMillis;
+        private long durationNanos;
+        private String correlationId;
+        private String method;
+        private String uri;
+        private Headers requestHeaders;
+        private Object requestBody;
+        private Response response;
+        private Throwable error;
+    }
+
+    /**
+     * Буфер одного потока.
+     */
+    private static final class Ring {
+        private final Entry[] entries = new Entry[SIZE];
+        private long written;
+
+        private Ring() {
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = new Entry();
+            }
+        }
+
+        private Entry next() {
+            return entries[(int) (written++ % entries.length)];
+        }
+    }
+
+    private static final ThreadLocal<Ring> RING = ThreadLocal.withInitial(Ring::new);
+
+    private static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        if (SIZE <= 0) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        Entry entry = RING.get().next();
+        entry.timestampMillis = System.currentTimeMillis();
+        entry.correlationId = EventLog.currentCorrelationId();
+        entry.method = requestSpec.getMethod();
+        entry.uri = requestSpec.getURI();
+        entry.requestHeaders = requestSpec.getHeaders();
+        entry.requestBody = requestSpec.getBody();
+        entry.response = null;
+        entry.error = null;
+        long start = System.nanoTime();
+        try {
+            entry.response = ctx.next(requestSpec, responseSpec);
+            return entry.response;
+        } catch (Exception e) {
+            entry.error = e;
+            throw e;
+        } finally {
+            entry.durationNanos = System.nanoTime() - start;
+        }
+    };
+
+    private RequestCapture() {
+    }
+
+    /**
+     * Фильтр RestAssured, сохраняющий запрос и ответ в буфер текущего потока.
+     *
+     * @return фильтр
+     */
+    public static Filter filter() {
+        return FILTER;
+    }
+
+    /**
+     * Очищает буфер текущего потока (без освобождения ячеек).
+     */
+    public static void clear() {
+        if (SIZE > 0) {
+            Ring ring = RING.get();
+            ring.written = 0;
+            for (Entry entry : ring.entries) {
+                entry.requestBody = null;
+                entry.response = null;
+                entry.error = null;
+            }
+        }
+    }
+
+    /**
+     * Выгружает содержимое буфера текущего потока в текст, от старых запросов к новым.
+     *
+     * @return текст или пустая строка, если запросов не было
+     */
+    public static String dump() {
+        if (SIZE <= 0) {
+            return "";
+        }
+        Ring ring = RING.get();
+        StringBuilder out = new StringBuilder();
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+        long first = Math.max(0, ring.written - ring.entries.length);
+        for (long i = first; i < ring.written; i++) {
+            Entry entry = ring.entries[(int) (i % ring.entries.length)];
+            out.append("=== ").append(time.format(new Date(entry.timestampMillis)))
+                    .append(' ').append(entry.method).append(' ').append(entry.uri)
+                    .append(" (").append(entry.durationNanos / 1_000_000).append(" мс, cid ")
+                    .append(entry.correlationId).append(")\n");
+            appendHeaders(out, entry.requestHeaders);
+            appendBody(out, entry.requestBody);
+            if (entry.response != null) {
+                out.append("--- ").append(entry.response.getStatusLine()).append('\n');
+                appendHeaders(out, entry.response.getHeaders());
+                appendBody(out, entry.response.asByteArray());
+            }
+            if (entry.error != null) {
+                out.append("--- Ошибка: ").append(entry.error).append('\n');
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void appendHeaders(StringBuilder out, Headers headers) {
+        if (headers == null) {
+            return;
+        }
+        for (Header header : headers) {
+            String value = "Authorization".equalsIgnoreCase(header.getName()) ? "***" : header.getValue();
+            out.append(header.getName()).append(": ").append(value).append('\n');
+        }
+    }
+
+    private static void appendBody(StringBuilder out, Object body) {
+        if (body == null) {
+            return;
+        }
+        String text;
+        int fullLength;
+        if (body instanceof byte[]) {
+            byte[] bytes = (byte[]) body;
+            fullLength = bytes.length;
+            text = new String(bytes, 0, Math.min(bytes.length, BODY_LIMIT), StandardCharsets.UTF_8);
+        } else {
+            String value = String.valueOf(body);
+            fullLength = value.length();
+            text = value.substring(0, Math.min(value.length(), BODY_LIMIT));
+        }
+        out.append('\n').append(text);
+        if (fullLength > BODY_LIMIT) {
+            out.append("… [обрезано, всего ").append(fullLength).append(']');
+        }
+        out.append('\n');
+    }
+}
@@ -0,0 +1,201 @@
+package helpers;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Отказоустойчивость запросов к API: таймауты, дедлайн операции, повторы с экспоненциальной
+ * задержкой, circuit breaker и ограничение частоты запросов.
+ * Все параметры берутся из файла настроек через класс ParametersProvider.
+ */
+public final class Resilience {
+
+    /**
+     * Таймауты соединения и чтения одной попытки, мс.
+     */
+    public static final int CONNECT_TIMEOUT_MS = (int) ParametersProvider.getLongProperty("connectTimeoutMs", 5_000);
+    public static final int READ_TIMEOUT_MS = (int) ParametersProvider.getLongProperty("readTimeoutMs", 30_000);
+
+    /**
+     * Дедлайн всей операции вместе с повторами, мс.
+     */
+    private static final long DEADLINE_MS = ParametersProvider.getLongProperty("operationDeadlineMs", 60_000);
+
+    /**
+     * Параметры повторов: число повторов, базовая и максимальная задержка, методы, которые можно повторять.
+     */
+    private static final int MAX_RETRIES = (int) ParametersProvider.getLongProperty("retryMaxAttempts", 2);
+    private static final long BACKOFF_BASE_MS = ParametersProvider.getLongProperty("retryBackoffBaseMs", 200);
+    private static final long BACKOFF_MAX_MS = ParametersProvider.getLongProperty("retryBackoffMaxMs", 5_000);
+    private static final Set<String> RETRY_METHODS = Arrays.stream(ParametersProvider.getProperty("retryMethods").split(","))
+            .map(method -> method.trim().toUpperCase(Locale.ROOT))
+            .filter(method -> !method.isEmpty())
+            .collect(Collectors.toSet());
+
+    /**
+     * Статусы, при которых попытка считается сбоем сервера и может быть повторена.
+     */
+    private static final Set<Integer> RETRY_STATUSES = Set.of(502, 503, 504);
+
+    private static final CircuitBreaker BREAKER = new CircuitBreaker("api",
+            (int) ParametersProvider.getLongProperty("breakerFailureThreshold", 5),
+            ParametersProvider.getLongProperty("breakerOpenMs", 10_000));
+
+    private static final RateLimiter LIMITER = new RateLimiter("api", ParametersProvider.getLongProperty("rateLimitRps", 0));
+
+    /**
+     * Момент истечения дедлайна текущей операции (System.nanoTime) и статус последней попытки.
+     */
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> LAST_STATUS = new ThreadLocal<>();
+
+    private static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        BREAKER.acquirePermission();
+        LIMITER.acquire();
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+        } catch (Exception e) {
+            BREAKER.onFailure();
+            throw e;
+        }
+        LAST_STATUS.set(response.statusCode());
+        if (response.statusCode() >= 500) {
+            BREAKER.onFailure();
+        } else {
+            BREAKER.onSuccess();
+        }
+        return response;
+    };
+
+    private Resilience() {
+    }
+
+    /**
+     * Фильтр RestAssured, применяющий circuit breaker и лимит частоты к каждой попытке.
+     *
+     * @return фильтр
+     */
+    public static Filter filter() {
+        return FILTER;
+    }
+
+    /**
+     * Breaker запросов к API, общий для RestAssured и прямых HTTP-вызовов.
+     *
+     * @return breaker
+     */
+    public static CircuitBreaker breaker() {
+        return BREAKER;
+    }
+
+    /**
+     * Лимитер запросов к API, общий для RestAssured и прямых HTTP-вызовов.
+     *
+     * @return лимитер
+     */
+    public static RateLimiter limiter() {
+        return LIMITER;
+    }
+
+    /**
+     * Конфигурация RestAssured с таймаутами. Таймаут чтения не превышает остаток дедлайна текущей операции.
+     *
+     * @return конфигурация
+     */
+    public static RestAssuredConfig config() {
+        int readTimeout = (int) Math.max(1, Math.min(READ_TIMEOUT_MS, remainingMillis()));
+        return RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+                .setParam("http.connection.timeout", CONNECT_TIMEOUT_MS)
+                .setParam("http.socket.timeout", readTimeout));
+    }
+
+    /**
+     * Остаток дедлайна текущей операции, мс. Вне операции — таймаут чтения.
+     *
+     * @return остаток времени
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return READ_TIMEOUT_MS;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * Выполняет операцию в пределах дедлайна. Операции с методами из retryMethods повторяются
+     * при ответах 502/503/504 и сетевых ошибках с экспоненциальной задержкой со случайным разбросом.
+     *
+     * @param method    HTTP-метод операции
+     * @param operation операция
+     * @param <T>       тип результата
+     * @return результат операции
+     */
+    public static <T> T call(String method, Supplier<T> operation) {
+        if (DEADLINE.get() != null) {
+            return operation.get();
+        }
+        boolean retryable = RETRY_METHODS.contains(method.toUpperCase(Locale.ROOT));
+        DEADLINE.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MS));
+        try {
+            for (int attempt = 0; ; attempt++) {
+                LAST_STATUS.remove();
+                try {
+                    return operation.get();
+                } catch (Exception | AssertionError e) {
+                    if (!retryable || attempt >= MAX_RETRIES || !isTransient(e)) {
+                        throw e;
+                    }
+                    long backoff = ThreadLocalRandom.current().nextLong(
+                            Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(attempt, 20)) + 1);
+                    if (backoff >= remainingMillis()) {
+                        Metrics.increment("api.deadline.exceeded");
+                        throw e;
+                    }
+                    Metrics.increment("api.retry");
+                    sleep(backoff);
+                }
+            }
+        } finally {
+            DEADLINE.remove();
+            LAST_STATUS.remove();
+        }
+    }
+
+    /**
+     * Считает сбой временным, если сервер ответил 502/503/504 или запрос не дошел из-за сетевой ошибки.
+     */
+    private static boolean isTransient(Throwable error) {
+        Integer status = LAST_STATUS.get();
+        if (status != null) {
+            return RETRY_STATUSES.contains(status);
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Ожидание повтора запроса прервано", e);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package helpers;
+
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Длительный (soak) прогон: сценарии из заданных тестовых классов выполняются по кругу заданное время,
+ * а фоновый поток периодически снимает показатели клиента и MySQL и пишет их в CSV.
+ * По окончании ряды проверяются на устойчивый рост (утечки соединений, потоков, памяти)
+ * и на дрейф задержки сценариев.
+ * <p>
+ * Каждая итерация — вложенный запуск TestNG. Хуки уровня сьюта (вывод метрик, PerfGate, сохранение истории
+ * длительностей) во время итераций пропускаются, см. {@link #isNestedRun()}, и выполняются один раз по окончании
+ * внешнего сьюта, в котором запущен soak-тест; замеры итераций при этом в них попадают.
+ */
+public class SoakRunner {
+
+    /**
+     * Один замер показателей.
+     */
+    private static final class Sample {
+        private double elapsedSeconds;
+        private double oldGenAfterGcMb;
+        private int threads;
+        private long openFds;
+        private long sockets;
+        private long dbThreadsConnected;
+        private long dbRowLockWaitsDelta;
+        private int iterations;
+        private int failures;
+        private double testP50Ms;
+        private double testP95Ms;
+    }
+
+    private static volatile boolean nestedRun;
+
+    private final Class<?>[] testClasses;
+    private final Duration duration;
+    private final Duration sampleInterval;
+    private final double growthThreshold;
+    private final DataBaseHelper dbHelper;
+
+    private final List<Sample> samples = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Long> testNanos = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger iterations = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private long lastRowLockWaits = -1;
+    private long startedAt;
+
+    /**
+     * @param testClasses     классы со сценариями
+     * @param duration        длительность прогона
+     * @param sampleInterval  период снятия показателей
+     * @param growthThreshold относительный рост (например, 0.2 = 20%), начиная с которого ряд считается растущим
+     * @param dbHelper        помощник для запросов статуса MySQL
+     */
+    public SoakRunner(Class<?>[] testClasses, Duration duration, Duration sampleInterval, double growthThreshold,
+                      DataBaseHelper dbHelper) {
+        this.testClasses = testClasses;
+        this.duration = duration;
+        this.sampleInterval = sampleInterval;
+        this.growthThreshold = growthThreshold;
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Выполняет прогон и записывает ряд показателей в CSV.
+     *
+     * @param csvFile файл для временного ряда
+     * @return найденные признаки деградации (пустой список, если их нет)
+     */
+    public List<String> run(Path csvFile) {
+        startedAt = System.nanoTime();
+        long stopAt = startedAt + duration.toNanos();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "soak-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sampleSafely, 0, sampleInterval.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            while (System.nanoTime() < stopAt) {
+                runIteration();
+                iterations.incrementAndGet();
+            }
+        } finally {
+            sampler.shutdown();
+            try {
+                sampler.awaitTermination(sampleInterval.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sampleSafely();
+        writeCsv(csvFile);
+        return analyze();
+    }
+
+    /**
+     * Идет ли сейчас итерация soak-прогона. Хуки уровня сьюта проверяют флаг, чтобы не срабатывать
+     * на каждой итерации.
+     *
+     * @return true внутри вложенного запуска TestNG
+     */
+    public static boolean isNestedRun() {
+        return nestedRun;
+    }
+
+    private void runIteration() {
+        TestNG testNG = new TestNG(false);
+        testNG.setTestClasses(testClasses);
+        testNG.setVerbose(0);
+        testNG.addListener(new ITestListener() {
+            @Override
+            public void onTestSuccess(ITestResult result) {
+                testNanos.add((result.getEndMillis() - result.getStartMillis()) * 1_000_000L);
+            }
+
+            @Override
+            public void onTestFailure(ITestResult result) {
+                failures.incrementAndGet();
+            }
+        });
+        nestedRun = true;
+        try {
+            testNG.run();
+        } finally {
+            nestedRun = false;
+        }
+    }
+
+    /**
+     * Снимает показатели, не давая исключению остановить периодическое выполнение в планировщике.
+     */
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            Metrics.increment("soak.sample.failed");
+            System.err.println("[soak] Ошибка снятия показателей: " + e);
+        }
+    }
+
+    /**
+     * Снимает показатели. Длительности тестов берутся за период с предыдущего замера.
+     */
+    private synchronized void sample() {
+        Sample sample = new Sample();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        sample.elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+        sample.oldGenAfterGcMb = oldGenAfterGcMb();
+        sample.threads = threads.getThreadCount();
+        countDescriptors(sample);
+
+        // У замера собственный идентификатор корреляции: поток планировщика не выполняет HTTP-запросов.
+        EventLog.newCorrelationId();
+        Map<String, Long> status = dbHelper.getGlobalStatus("Threads_connected", "Innodb_row_lock_waits");
+        sample.dbThreadsConnected = status.getOrDefault("Threads_connected", -1L);
+        long rowLockWaits = status.getOrDefault("Innodb_row_lock_waits", -1L);
+        sample.dbRowLockWaitsDelta = lastRowLockWaits < 0 || rowLockWaits < 0 ? 0 : rowLockWaits - lastRowLockWaits;
+        lastRowLockWaits = rowLockWaits;
+
+        sample.iterations = iterations.get();
+        sample.failures = failures.get();
+        List<Long> window = new ArrayList<>();
+        for (Long nanos; (nanos = testNanos.poll()) != null; ) {
+            window.add(nanos);
+        }
+        LatencyStats stats = LatencyStats.of(window.stream().mapToLong(Long::longValue).toArray());
+        // Пустое окно (ни один тест не завершился) помечается -1 и не участвует в анализе роста.
+        sample.testP50Ms = window.isEmpty() ? -1 : stats.getP50();
+        sample.testP95Ms = window.isEmpty() ? -1 : stats.getP95();
+        samples.add(sample);
+    }
+
+    /**
+     * Занятость старого поколения кучи сразу после последней сборки мусора, МБ. В отличие от текущей занятости
+     * кучи не зависит от того, в какой точке «пилы» между сборками снят замер. -1, если пул старого поколения
+     * не найден или сборок старого поколения еще не было (при G1 и Parallel молодые сборки этот показатель
+     * не обновляют; утечка рано или поздно вызывает сборку старого поколения, и ряд появляется).
+     */
+    private static double oldGenAfterGcMb() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            String name = pool.getName();
+            if (pool.getType() != MemoryType.HEAP || !(name.contains("Old") || name.contains("Tenured"))) {
+                continue;
+            }
+            MemoryUsage usage = pool.getCollectionUsage();
+            return usage == null || usage.getUsed() == 0 ? -1 : usage.getUsed() / (1024.0 * 1024.0);
+        }
+        return -1;
+    }
+
+    /**
+     * Считает открытые дескрипторы и сокеты процесса по /proc/self/fd (Linux). На других ОС — -1.
+     */
+    private static void countDescriptors(Sample sample) {
+        Path fdDir = Paths.get("/proc/self/fd");
+        if (!Files.isDirectory(fdDir)) {
+            sample.openFds = -1;
+            sample.sockets = -1;
+            return;
+        }
+        try (DirectoryStream<Path> fds = Files.newDirectoryStream(fdDir)) {
+            for (Path fd : fds) {
+                sample.openFds++;
+                try {
+                    if (Files.readSymbolicLink(fd).toString().startsWith("socket:")) {
+                        sample.sockets++;
+                    }
+                } catch (IOException e) {
+                    // Дескриптор закрылся во время обхода.
+                }
+            }
+        } catch (IOException e) {
+            sample.openFds = -1;
+            sample.sockets = -1;
+        }
+    }
+
+    private void writeCsv(Path csvFile) {
+        try {
+            File parent = csvFile.toAbsolutePath().getParent().toFile();
+            if (!parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Не удалось создать каталог " + parent);
+            }
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8))) {
+                out.println("elapsed_s,old_gen_after_gc_mb,threads,open_fds,sockets,db_threads_connected,db_row_lock_waits_delta,"
+                        + "iterations,failures,test_p50_ms,test_p95_ms");
+                for (Sample s : samples) {
+                    out.printf(Locale.ROOT, "%.1f,%.1f,%d,%d,%d,%d,%d,%d,%d,%.1f,%.1f%n", s.elapsedSeconds, s.oldGenAfterGcMb,
+                            s.threads, s.openFds, s.sockets, s.dbThreadsConnected, s.dbRowLockWaitsDelta, s.iterations,
+                            s.failures, s.testP50Ms, s.testP95Ms);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при записи ряда показателей: " + csvFile, e);
+        }
+    }
+
+    private List<String> analyze() {
+        List<String> findings = new ArrayList<>();
+        checkGrowth(findings, "Старое поколение кучи после сборки мусора, МБ", s -> s.oldGenAfterGcMb);
+        checkGrowth(findings, "Потоки клиента", s -> s.threads);
+        checkGrowth(findings, "Открытые дескрипторы", s -> s.openFds);
+        checkGrowth(findings, "Открытые сокеты", s -> s.sockets);
+        checkGrowth(findings, "Соединения MySQL (Threads_connected)", s -> s.dbThreadsConnected);
+        checkGrowth(findings, "Ожидания блокировок строк InnoDB за период", s -> s.dbRowLockWaitsDelta);
+        checkGrowth(findings, "Задержка теста p50, мс", s -> s.testP50Ms);
+        checkGrowth(findings, "Задержка теста p95, мс", s -> s.testP95Ms);
+        return findings;
+    }
+
+    /**
+     * Ряд считается устойчиво растущим, если медиана последней четверти замеров больше медианы первой
+     * на growthThreshold и ряд не убывал хотя бы в 70% шагов. Однократные всплески так не срабатывают.
+     */
+    private void checkGrowth(List<String> findings, String name, ToDoubleFunction<Sample> metric) {
+        double[] values = samples.stream().mapToDouble(metric).filter(v -> v >= 0).toArray();
+        if (values.length < 8) {
+            return;
+        }
+        int quarter = values.length / 4;
+        double first = median(Arrays.copyOfRange(values, 0, quarter));
+        double last = median(Arrays.copyOfRange(values, values.length - quarter, values.length));
+        int nonDecreasing = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] >= values[i - 1]) {
+                nonDecreasing++;
+            }
+        }
+        boolean grows = last > first * (1 + growthThreshold) && last - first > 0
+                && nonDecreasing >= 0.7 * (values.length - 1);
+        if (grows) {
+            findings.add(String.format(Locale.ROOT, "%s: рост с %.1f до %.1f (неубывающих шагов %d из %d)",
+                    name, first, last, nonDecreasing, values.length - 1));
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 0 ? (sorted[middle - 1] + sorted[middle]) / 2 : sorted[middle];
+    }
+
+    /**
+     * Имя CSV-файла с отметкой времени запуска.
+     *
+     * @param directory каталог
+     * @return путь к файлу
+     */
+    public static Path csvFile(String directory) {
+        return Paths.get(directory, "soak-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+    }
+}
@@ -0,0 +1,237 @@
+package helpers;
+
+import io.restassured.response.Response;
+import lombok.Getter;
+import pojo.DataPost;
+import pojo.DataPostDigest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static helpers.BaseRequests.POSTS_PATH;
+import static helpers.BaseRequests.createPostBodyWithId;
+import static io.restassured.RestAssured.given;
+
+/**
+ * Нагрузочный сценарий конкурентного редактирования одного поста.
+ * N потоков в течение заданного времени отправляют PUT на один и тот же ID, каждая запись
+ * помечена уникальной версией в заголовке и содержимом. После прогона итоговая строка
+ * wp_posts сверяется с журналом ответов: потерянные, переупорядоченные и «разорванные»
+ * (заголовок от одной записи, содержимое от другой) записи попадают в отчет. Переупорядоченной считается
+ * запись, в ответ на которую сервер вернул версию, завершившуюся еще до ее начала.
+ * <p>
+ * Записи идут мимо Resilience: повтор после 502/503 отправил бы ту же версию второй раз и выглядел бы
+ * как переупорядоченная запись, а серия 5xx открыла бы общий breaker для остальных тестов. Ответы 5xx
+ * считаются в отчете отдельно.
+ */
+public class UpdateContentionStress {
+
+    private static final String VERSION_PREFIX = "contention-v";
+
+    /**
+     * Одна запись: версия, интервал выполнения и что вернул сервер.
+     */
+    private static final class Write {
+        private final long version;
+        private final long startNanos;
+        private final long endNanos;
+        private final int status;
+        private final boolean success;
+        private final Long echoedVersion;
+
+        private Write(long version, long startNanos, long endNanos, int status, Long echoedVersion) {
+            this.version = version;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.status = status;
+            this.success = status == 200;
+            this.echoedVersion = echoedVersion;
+        }
+    }
+
+    /**
+     * Итоги прогона.
+     */
+    @Getter
+    public static class Report {
+        private int threads;
+        private boolean virtualThreads;
+        private double durationSeconds;
+        private int writes;
+        private int failedWrites;
+        private int serverErrors;
+        private double throughputPerSecond;
+        private LatencyStats latency;
+        private int interleavedResponses;
+        private int reorderedWrites;
+        private String finalTitle;
+        private boolean finalWriteKnown;
+        private boolean lostWrite;
+        private boolean tornWrite;
+
+        @Override
+        public String toString() {
+            return String.format("Конкурентное обновление: потоков=%d%s, длительность=%.1fс, записей=%d, ошибок=%d (из них 5xx=%d), "
+                            + "пропускная способность=%.1f/с, задержка [%s], ответов с чужой версией=%d, переупорядоченных записей=%d, "
+                            + "итоговая версия=%s (известна=%b), потерянная запись=%b, разорванная запись=%b",
+                    threads, virtualThreads ? " (виртуальные)" : "", durationSeconds, writes, failedWrites, serverErrors,
+                    throughputPerSecond, latency, interleavedResponses, reorderedWrites, finalTitle, finalWriteKnown, lostWrite, tornWrite);
+        }
+    }
+
+    private final int threads;
+    private final Duration duration;
+    private final boolean virtualThreads;
+    private final DataBaseHelper dbHelper;
+    private boolean virtualThreadsUsed;
+
+    /**
+     * @param threads        число параллельных редакторов
+     * @param duration       длительность прогона
+     * @param virtualThreads использовать виртуальные потоки (если JVM их поддерживает)
+     * @param dbHelper       помощник для сверки с базой
+     */
+    public UpdateContentionStress(int threads, Duration duration, boolean virtualThreads, DataBaseHelper dbHelper) {
+        this.threads = threads;
+        this.duration = duration;
+        this.virtualThreads = virtualThreads;
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Запускает прогон против поста и сверяет итоговое состояние с журналом.
+     *
+     * @param postId ID существующего поста.
+     * @param tokens Токены редакторов; i-й поток использует tokens[i % tokens.size()].
+     * @return Отчет.
+     */
+    public Report run(Integer postId, List<String> tokens) {
+        AtomicLong versions = new AtomicLong();
+        ConcurrentLinkedQueue<Write> log = new ConcurrentLinkedQueue<>();
+        long startedAt = System.nanoTime();
+        long stopAt = startedAt + duration.toNanos();
+
+        ExecutorService executor = newExecutor();
+        for (int i = 0; i < threads; i++) {
+            String token = tokens.get(i % tokens.size());
+            executor.execute(() -> {
+                while (System.nanoTime() < stopAt) {
+                    long version = versions.incrementAndGet();
+                    DataPost body = createPostBodyWithId(postId, title(version), content(version), "publish");
+                    long start = System.nanoTime();
+                    int status = -1;
+                    Long echoedVersion = null;
+                    try {
+                        Response response = given()
+                                .spec(BaseRequests.unguardedRequestSpec(token))
+                                .body(body)
+                                .when()
+                                .put(POSTS_PATH + "/" + postId);
+                        status = response.statusCode();
+                        if (status == 200) {
+                            echoedVersion = parseVersion(response.as(DataPost.class).getTitle().getRaw());
+                        }
+                    } catch (Exception e) {
+                        // Сетевая ошибка или таймаут (RestAssured пробрасывает и проверяемые IOException): запись считается неуспешной со статусом -1.
+                    }
+                    long end = System.nanoTime();
+                    if (status != 200) {
+                        Metrics.increment(status >= 500 ? "contention.write.5xx" : "contention.write.failed");
+                    }
+                    log.add(new Write(version, start, end, status, echoedVersion));
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(duration.toMillis() + Resilience.READ_TIMEOUT_MS * 3L, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Прогон конкурентного обновления прерван", e);
+        }
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+        return reconcile(postId, new ArrayList<>(log), elapsedSeconds);
+    }
+
+    private Report reconcile(Integer postId, List<Write> log, double elapsedSeconds) {
+        List<Write> succeeded = log.stream().filter(w -> w.success).collect(Collectors.toList());
+        Report report = new Report();
+        report.threads = threads;
+        report.virtualThreads = virtualThreadsUsed;
+        report.durationSeconds = elapsedSeconds;
+        report.writes = log.size();
+        report.failedWrites = log.size() - succeeded.size();
+        report.serverErrors = (int) log.stream().filter(w -> w.status >= 500).count();
+        report.throughputPerSecond = succeeded.size() / elapsedSeconds;
+        report.latency = LatencyStats.of(succeeded.stream().mapToLong(w -> w.endNanos - w.startNanos).toArray());
+        report.interleavedResponses = (int) succeeded.stream().filter(w -> !Long.valueOf(w.version).equals(w.echoedVersion)).count();
+        Map<Long, Write> byVersion = log.stream().collect(Collectors.toMap(w -> w.version, Function.identity()));
+
+        // Ответ записи W вернул версию V, завершившуюся до начала W: W была отменена более ранней записью.
+        report.reorderedWrites = (int) succeeded.stream().filter(w -> {
+            Write echoed = w.echoedVersion == null ? null : byVersion.get(w.echoedVersion);
+            return echoed != null && echoed.endNanos < w.startNanos;
+        }).count();
+
+        DataPostDigest actual = dbHelper.getPostDigestById(postId);
+        if (actual == null) {
+            throw new RuntimeException("Пост " + postId + " не найден в базе после прогона");
+        }
+        report.finalTitle = actual.getTitle();
+        Write finalWrite = parseVersion(actual.getTitle()) == null ? null : byVersion.get(parseVersion(actual.getTitle()));
+        report.finalWriteKnown = finalWrite != null;
+        if (finalWrite == null || succeeded.isEmpty()) {
+            return report;
+        }
+
+        // Любая успешная запись, начавшаяся после завершения итоговой, обязана была ее перезаписать.
+        report.lostWrite = succeeded.stream().anyMatch(w -> w.startNanos > finalWrite.endNanos);
+
+        DataPostDigest expected = ContentDigest.expected(postId, actual.getTitle(), content(finalWrite.version), actual.getStatus());
+        report.tornWrite = !expected.getContentSha256().equals(actual.getContentSha256());
+        return report;
+    }
+
+    private ExecutorService newExecutor() {
+        if (virtualThreads) {
+            try {
+                ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                virtualThreadsUsed = true;
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                System.out.println("[contention] Виртуальные потоки недоступны в этой JVM, используются обычные");
+            }
+        }
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    private static String title(long version) {
+        return VERSION_PREFIX + version;
+    }
+
+    private static String content(long version) {
+        return "Содержимое версии " + version;
+    }
+
+    private static Long parseVersion(String title) {
+        if (title == null || !title.startsWith(VERSION_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(title.substring(VERSION_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package helpers;
+
+import lombok.Getter;
+import pojo.DataUser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static helpers.BaseRequests.*;
+
+/**
+ * Неизменяемый пул тестовых пользователей с заранее посчитанными заголовками Basic Auth.
+ * Пользователи создаются через users_path от имени администратора; уже существующие с тем же логином
+ * переиспользуются (при другой роли или неподходящем пароле им сбрасываются пароль и роль), поэтому
+ * повторный запуск не плодит учетные записи.
+ * <p>
+ * Нагрузочные тесты (сейчас UpdateContentionTest) берут токены из пула, чтобы запросы шли от разных
+ * пользователей, как на реальном сайте, а не все от одного администратора. Функциональные сьюты
+ * по-прежнему работают от имени администратора (TOKEN): они проверяют права и тексты ошибок именно для него.
+ */
+public final class UserPool {
+
+    private static final int COUNT = (int) ParametersProvider.getLongProperty("loadUsersCount", 0);
+    private static final String ROLE = ParametersProvider.getProperty("loadUsersRole");
+    private static final String PREFIX = ParametersProvider.getProperty("loadUsersPrefix");
+    private static final String PASSWORD = ParametersProvider.getProperty("loadUsersPassword");
+
+    private static volatile UserPool shared;
+
+    /**
+     * Пользователь пула; token — готовый токен Basic Auth для requestSpec.
+     */
+    @Getter
+    private static final class User {
+        private final Integer id;
+        private final String username;
+        private final String token;
+
+        private User(Integer id, String username, String token) {
+            this.id = id;
+            this.username = username;
+            this.token = token;
+        }
+    }
+
+    private final List<String> tokens;
+
+    private UserPool(List<User> users) {
+        List<String> tokenList = new ArrayList<>(users.size());
+        for (User user : users) {
+            tokenList.add(user.getToken());
+        }
+        this.tokens = Collections.unmodifiableList(tokenList);
+    }
+
+    /**
+     * Общий пул, настроенный параметрами loadUsersCount, loadUsersRole, loadUsersPrefix и loadUsersPassword.
+     * Создается при первом обращении. При loadUsersCount=0 пул состоит из одного администратора (TOKEN).
+     *
+     * @return пул пользователей
+     */
+    public static UserPool shared() {
+        UserPool pool = shared;
+        if (pool == null) {
+            synchronized (UserPool.class) {
+                pool = shared;
+                if (pool == null) {
+                    pool = COUNT > 0 ? provision(COUNT, ROLE, PREFIX, PASSWORD, TOKEN)
+                            : new UserPool(List.of(new User(null, ParametersProvider.getProperty("usernameAdmin"), TOKEN)));
+                    shared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Создает (или находит существующих) пользователей с логинами prefix_role_1 … prefix_role_count.
+     *
+     * @param count      количество пользователей
+     * @param role       роль WordPress (author, editor)
+     * @param prefix     префикс логина
+     * @param password   пароль всех пользователей пула
+     * @param adminToken токен администратора
+     * @return пул пользователей
+     */
+    public static UserPool provision(int count, String role, String prefix, String password, String adminToken) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String username = prefix + "_" + role + "_" + i;
+            String token = createBasicAuthHeader(username, password);
+            DataUser user = findUserByLogin(username, adminToken);
+            if (user == null) {
+                user = createUser(DataUser.builder()
+                        .username(username)
+                        .email(username + "@example.test")
+                        .password(password)
+                        .roles(List.of(role))
+                        .build(), adminToken);
+            } else if (user.getRoles() == null || !user.getRoles().contains(role) || !canLogIn(token)) {
+                // Пользователь остался от прогона с другой ролью или паролем: приводим его к настройкам пула.
+                updateUser(user.getId(), DataUser.builder().password(password).roles(List.of(role)).build(), adminToken);
+                if (!canLogIn(token)) {
+                    throw new RuntimeException("Не удалось войти пользователем пула " + username + " после сброса пароля");
+                }
+            }
+            users.add(new User(user.getId(), username, token));
+        }
+        return new UserPool(users);
+    }
+
+    private static boolean canLogIn(String token) {
+        try {
+            getCurrentUser(token);
+            return true;
+        } catch (RuntimeException | AssertionError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return токены пользователей пула в неизменяемом списке
+     */
+    public List<String> tokens() {
+        return tokens;
+    }
+}
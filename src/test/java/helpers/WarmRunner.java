@@ -0,0 +1,472 @@
+package helpers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import pojo.DataPost;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Долгоживущий локальный запускатель тестов. Процесс один раз загружает классы тестов, RestAssured и Jackson,
+ * читает настройки, открывает пул соединений MySQL (dbPoolSize) и делает первый запрос к API, после чего
+ * принимает команды на 127.0.0.1 и запускает TestNG в уже прогретой JVM, передавая результаты построчно.
+ * <p>
+ * Команды (одна строка на соединение): «run класс[#метод] ...», «ping», «stop». Ответ на run — строки
+ * «PASS|FAIL|SKIP класс#метод N ms [сообщение]» и итоговая «DONE passed=.. failed=.. skipped=.. N ms».
+ * Одновременно выполняется только один прогон. Перед каждым прогоном сбрасывается накопленное
+ * предыдущими прогонами состояние: счетчики Metrics, замеры PerfRecorder, переданные фоновые проверки
+ * базы и буфер запросов потока сервера; пул соединений и пользователи UserPool сохраняются.
+ * <p>
+ * Классы каталога target/test-classes (тесты, helpers, pojo) загружаются отдельным загрузчиком. Если после
+ * mvn test-compile какой-либо .class в каталоге изменился, появился или удален, перед прогоном загрузчик
+ * создается заново и прогрев повторяется, поэтому запускается всегда свежий байткод; зависимости
+ * (TestNG, RestAssured, Jackson, драйвер MySQL) остаются прогретыми.
+ * <p>
+ * Порт задается системным свойством warm.port (по умолчанию 7711). Запуск сервера и клиента:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.mainClass=helpers.WarmRunner -Dexec.classpathScope=test -Dexec.args=serve
+ * java -cp target/test-classes helpers.WarmRunner run tests.CreatePostTest#createPostWithCorrectDataTest
+ * </pre>
+ * Клиенту нужны только классы JDK, поэтому он стартует без Maven и зависимостей. Код выхода клиента:
+ * 0 — без падений, 1 — были падения или ошибка, 2 — неверные аргументы, 3 — сервер не запущен.
+ */
+public final class WarmRunner {
+
+    private static final int PORT = Integer.getInteger("warm.port", 7711);
+
+    private WarmRunner() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String command = args.length == 0 ? "" : args[0];
+        switch (command) {
+            case "serve":
+                Server.serve();
+                break;
+            case "run":
+            case "ping":
+            case "stop":
+                System.exit(send(String.join(" ", args)));
+                break;
+            default:
+                System.err.println("Использование: WarmRunner serve | run класс[#метод] ... | ping | stop");
+                System.exit(2);
+        }
+    }
+
+    /**
+     * Клиент: отправляет команду серверу и печатает ответ.
+     *
+     * @return код выхода: 0 — без падений, 1 — были падения или ошибка, 3 — сервер не запущен
+     */
+    private static int send(String command) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), PORT);
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            out.println(command);
+            int exitCode = 0;
+            for (String line; (line = in.readLine()) != null; ) {
+                System.out.println(line);
+                if (line.startsWith("FAIL") || line.startsWith("ERROR")) {
+                    exitCode = 1;
+                }
+            }
+            return exitCode;
+        } catch (ConnectException e) {
+            System.err.println("[warm] Сервер не запущен на 127.0.0.1:" + PORT + " (запустите WarmRunner serve)");
+            return 3;
+        }
+    }
+
+    /**
+     * Серверная часть. Вынесена в отдельный класс, чтобы клиенту не требовались TestNG и остальные зависимости.
+     * Сама обращается только к классам JDK: классы проекта загружает и вызывает через {@link Generation}.
+     */
+    private static final class Server {
+
+        private static final String SESSION_CLASS = "helpers.WarmRunner$Session";
+
+        static void serve() throws IOException {
+            Path classesDir = classesDir();
+            Generation generation = Generation.load(classesDir);
+            System.out.printf("[warm] Ожидаю команды на 127.0.0.1:%d%n", PORT);
+            try (ServerSocket server = new ServerSocket(PORT, 16, InetAddress.getLoopbackAddress())) {
+                while (true) {
+                    try (Socket socket = server.accept();
+                         PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+                         BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                        String line = in.readLine();
+                        if (line == null) {
+                            continue;
+                        }
+                        String[] parts = line.trim().split("\\s+");
+                        switch (parts[0]) {
+                            case "run":
+                                if (!generation.isCurrent()) {
+                                    out.println("INFO классы тестов изменились, загружаю заново");
+                                    generation.close();
+                                    generation = Generation.load(classesDir);
+                                }
+                                generation.run(Arrays.copyOfRange(parts, 1, parts.length), out);
+                                break;
+                            case "ping":
+                                out.println("pong");
+                                break;
+                            case "stop":
+                                out.println("bye");
+                                return;
+                            default:
+                                out.println("ERROR неизвестная команда: " + parts[0]);
+                        }
+                    } catch (IOException e) {
+                        System.err.println("[warm] Ошибка соединения: " + e);
+                    }
+                }
+            } finally {
+                generation.close();
+            }
+        }
+
+        private static Path classesDir() {
+            try {
+                return Paths.get(WarmRunner.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            } catch (URISyntaxException e) {
+                throw new RuntimeException("Не удалось определить каталог классов тестов", e);
+            }
+        }
+    }
+
+    /**
+     * Классы проекта, загруженные одним загрузчиком, и отметка состояния каталога на момент загрузки.
+     */
+    private static final class Generation {
+        private final Path classesDir;
+        private final String stamp;
+        private final URLClassLoader loader;
+        private final Method run;
+        private final Method shutdown;
+
+        private Generation(Path classesDir, String stamp, URLClassLoader loader) throws ReflectiveOperationException {
+            this.classesDir = classesDir;
+            this.stamp = stamp;
+            this.loader = loader;
+            Class<?> session = loader.loadClass(Server.SESSION_CLASS);
+            this.run = session.getDeclaredMethod("run", String[].class, PrintWriter.class);
+            this.shutdown = session.getDeclaredMethod("shutdown");
+            run.setAccessible(true);
+            shutdown.setAccessible(true);
+        }
+
+        /**
+         * Загружает классы каталога новым загрузчиком и прогревает их.
+         */
+        static Generation load(Path classesDir) {
+            long start = System.nanoTime();
+            try {
+                Generation generation = new Generation(classesDir, stamp(classesDir),
+                        new ChildFirstLoader(classesDir.toUri().toURL(), WarmRunner.class.getClassLoader()));
+                Method warmUp = generation.loader.loadClass(Server.SESSION_CLASS).getDeclaredMethod("warmUp");
+                warmUp.setAccessible(true);
+                generation.invoke(warmUp);
+                System.out.printf("[warm] Прогрев занял %d ms%n", (System.nanoTime() - start) / 1_000_000);
+                return generation;
+            } catch (MalformedURLException | ReflectiveOperationException e) {
+                throw new RuntimeException("Не удалось загрузить классы тестов из " + classesDir, e);
+            }
+        }
+
+        boolean isCurrent() {
+            return stamp.equals(stamp(classesDir));
+        }
+
+        void run(String[] specs, PrintWriter out) {
+            try {
+                invoke(run, specs, out);
+            } catch (ReflectiveOperationException e) {
+                Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                out.println("ERROR " + String.valueOf(cause).trim().replace('\n', ' '));
+            }
+        }
+
+        /**
+         * Закрывает соединения пула и загрузчик. Фоновые потоки старых классов (если они были запущены)
+         * удерживают их в памяти до завершения процесса.
+         */
+        void close() {
+            try {
+                invoke(shutdown);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("[warm] Ошибка при выгрузке классов: " + e);
+            }
+            try {
+                loader.close();
+            } catch (IOException e) {
+                System.err.println("[warm] Ошибка при закрытии загрузчика: " + e);
+            }
+        }
+
+        private void invoke(Method method, Object... args) throws ReflectiveOperationException {
+            Thread thread = Thread.currentThread();
+            ClassLoader previous = thread.getContextClassLoader();
+            thread.setContextClassLoader(loader);
+            try {
+                method.invoke(null, args);
+            } finally {
+                thread.setContextClassLoader(previous);
+            }
+        }
+
+        /**
+         * Отметка каталога классов: число файлов .class и время последнего изменения среди них.
+         */
+        private static String stamp(Path classesDir) {
+            try (Stream<Path> files = Files.walk(classesDir)) {
+                long[] countAndLatest = new long[2];
+                files.filter(file -> file.toString().endsWith(".class")).forEach(file -> {
+                    countAndLatest[0]++;
+                    try {
+                        countAndLatest[1] = Math.max(countAndLatest[1], Files.getLastModifiedTime(file).toMillis());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return countAndLatest[0] + ":" + countAndLatest[1];
+            } catch (IOException | UncheckedIOException e) {
+                // Каталог меняется прямо сейчас (идет компиляция): считаем классы изменившимися.
+                return "";
+            }
+        }
+    }
+
+    /**
+     * Загрузчик, который берет классы из своего каталога раньше, чем у родителя: иначе родитель, у которого
+     * target/test-classes тоже в classpath, возвращал бы классы, загруженные при старте процесса.
+     */
+    private static final class ChildFirstLoader extends URLClassLoader {
+
+        private ChildFirstLoader(URL classesDir, ClassLoader parent) {
+            super(new URL[]{classesDir}, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    if (findResource(name.replace('.', '/') + ".class") == null) {
+                        return super.loadClass(name, resolve);
+                    }
+                    loaded = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(loaded);
+                }
+                return loaded;
+            }
+        }
+    }
+
+    /**
+     * Прогрев и прогоны внутри одного поколения классов. Загружается загрузчиком поколения
+     * и вызывается сервером через отражение.
+     */
+    private static final class Session {
+
+        /**
+         * Загружает и инициализирует классы тестов, прогревает Jackson, RestAssured и соединения.
+         * Недоступность стенда не мешает запуску: первые тесты просто заплатят за подключение сами.
+         */
+        private static void warmUp() {
+            ParametersProvider.getProperty("apiUrl");
+            int classes = loadTestClasses();
+
+            ObjectMapper mapper = new ObjectMapper();
+            try {
+                DataPost post = BaseRequests.createPostBody("Прогрев", "Прогрев", "draft");
+                mapper.readValue(mapper.writeValueAsString(post), DataPost.class);
+            } catch (IOException e) {
+                System.err.println("[warm] Ошибка прогрева Jackson: " + e);
+            }
+
+            try {
+                given().spec(BaseRequests.requestSpec(BaseRequests.TOKEN))
+                        .queryParam("per_page", 1)
+                        .when()
+                        .get(BaseRequests.POSTS_PATH)
+                        .then()
+                        .extract().body().jsonPath().getList("", DataPost.class);
+            } catch (Exception | AssertionError e) {
+                System.err.println("[warm] API недоступен: " + e.getMessage());
+            }
+
+            int connections = DataBaseHelper.warmUpPool();
+            System.out.printf("[warm] Классов тестов: %d, соединений MySQL в пуле: %d%n", classes, connections);
+        }
+
+        /**
+         * Освобождает ресурсы поколения перед заменой его новым.
+         */
+        private static void shutdown() {
+            DataBaseHelper.closePool();
+        }
+
+        /**
+         * Загружает все классы пакета tests из каталога скомпилированных тестов.
+         */
+        private static int loadTestClasses() {
+            Path dir;
+            try {
+                dir = Paths.get(Session.class.getProtectionDomain().getCodeSource().getLocation().toURI()).resolve("tests");
+            } catch (URISyntaxException e) {
+                return 0;
+            }
+            int count = 0;
+            if (!Files.isDirectory(dir)) {
+                return count;
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.class")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (!name.contains("$")) {
+                        testClass("tests." + name.substring(0, name.length() - ".class".length()));
+                        count++;
+                    }
+                }
+            } catch (IOException | ClassNotFoundException | LinkageError e) {
+                System.err.println("[warm] Ошибка загрузки классов тестов: " + e);
+            }
+            return count;
+        }
+
+        private static Class<?> testClass(String name) throws ClassNotFoundException {
+            return Class.forName(name, true, Session.class.getClassLoader());
+        }
+
+        /**
+         * Запускает указанные классы и методы и передает результаты по мере выполнения.
+         */
+        private static void run(String[] specs, PrintWriter out) {
+            long start = System.nanoTime();
+            Map<String, XmlClass> classes = new LinkedHashMap<>();
+            try {
+                for (String spec : specs) {
+                    String[] parts = spec.split("#", 2);
+                    XmlClass xmlClass = classes.get(parts[0]);
+                    if (xmlClass == null) {
+                        xmlClass = new XmlClass(testClass(parts[0]));
+                        classes.put(parts[0], xmlClass);
+                    }
+                    if (parts.length == 2) {
+                        xmlClass.getIncludedMethods().add(new XmlInclude(parts[1]));
+                    }
+                }
+            } catch (ClassNotFoundException e) {
+                out.println("ERROR класс не найден: " + e.getMessage());
+                return;
+            } catch (RuntimeException | LinkageError e) {
+                out.println("ERROR " + String.valueOf(e.getMessage()).trim().replace('\n', ' '));
+                return;
+            }
+            if (classes.isEmpty()) {
+                out.println("ERROR не указаны классы для запуска");
+                return;
+            }
+
+            XmlSuite suite = new XmlSuite();
+            suite.setName("warm");
+            XmlTest test = new XmlTest(suite);
+            test.setName("warm");
+            test.setXmlClasses(new ArrayList<>(classes.values()));
+
+            AtomicInteger passed = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            AtomicInteger skipped = new AtomicInteger();
+            TestNG testNG = new TestNG(false);
+            testNG.setXmlSuites(List.of(suite));
+            testNG.setVerbose(0);
+            testNG.addListener(new ITestListener() {
+                @Override
+                public void onTestSuccess(ITestResult result) {
+                    passed.incrementAndGet();
+                    report(out, "PASS", result);
+                }
+
+                @Override
+                public void onTestFailure(ITestResult result) {
+                    failed.incrementAndGet();
+                    report(out, "FAIL", result);
+                }
+
+                @Override
+                public void onTestSkipped(ITestResult result) {
+                    skipped.incrementAndGet();
+                    report(out, "SKIP", result);
+                }
+            });
+            resetRunState();
+            testNG.run();
+            if (testNG.hasFailure() && failed.get() == 0) {
+                out.println("FAIL конфигурационный метод (@Before/@After), подробности в консоли сервера");
+            }
+            out.printf("DONE passed=%d failed=%d skipped=%d %d ms%n", passed.get(), failed.get(), skipped.get(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+
+        /**
+         * Сбрасывает статическое состояние, которое иначе переходит из прогона в прогон: счетчики и замеры
+         * попали бы в отчеты и базовую линию perfMode следующего прогона. Тесты без параллельности выполняются
+         * в потоке сервера, поэтому достаточно очистить его буфер RequestCapture; потоки параллельного
+         * прогона TestNG создает заново вместе с их буферами.
+         */
+        private static void resetRunState() {
+            Metrics.reset();
+            PerfRecorder.reset();
+            AsyncDbVerifier.reset();
+            RequestCapture.clear();
+        }
+
+        private static synchronized void report(PrintWriter out, String status, ITestResult result) {
+            StringBuilder line = new StringBuilder(status).append(' ')
+                    .append(result.getTestClass().getRealClass().getName()).append('#').append(result.getMethod().getMethodName())
+                    .append(' ').append(result.getEndMillis() - result.getStartMillis()).append(" ms");
+            if (result.getThrowable() != null) {
+                line.append(' ').append(String.valueOf(result.getThrowable().getMessage()).replace('\n', ' '));
+            }
+            out.println(line);
+        }
+    }
+}
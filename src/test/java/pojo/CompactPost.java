@@ -0,0 +1,223 @@
+package pojo;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Компактная проекция поста только для чтения, для массовых выборок и сверок.
+ * Вместо вложенных Title/Content с парами raw/rendered хранится один вариант текста заголовка
+ * и содержимого (raw, если он есть, иначе rendered), а статус — общим значением перечисления
+ * (нестандартный статус дополнительно сохраняется строкой).
+ * Способ хранения текста выбирает вызывающий: массивом байт UTF-8 (строка создается заново при каждом
+ * вызове getTitle/getContent) или строкой Java. Строка с кириллицей хранит все символы по два байта,
+ * а UTF-8 — латиницу, пробелы и разметку по одному, поэтому для смешанного текста байты компактнее.
+ * Разбор JSON ({@link Deserializer}) всегда хранит UTF-8. Выигрыш по памяти воспроизводится
+ * тестом CompactPostFootprintTest.
+ */
+@JsonDeserialize(using = CompactPost.Deserializer.class)
+public final class CompactPost {
+
+    private final int id;
+    private final PostStatus status;
+
+    /**
+     * Исходное значение статуса, если оно не входит в PostStatus (status == OTHER), иначе null.
+     */
+    private final String customStatus;
+
+    /**
+     * String или byte[] в UTF-8, в зависимости от аргумента utf8 фабрики.
+     */
+    private final Object title;
+    private final Object content;
+
+    private CompactPost(int id, String status, Object title, Object content) {
+        this.id = id;
+        this.status = PostStatus.of(status);
+        this.customStatus = this.status == PostStatus.OTHER ? status : null;
+        this.title = title;
+        this.content = content;
+    }
+
+    /**
+     * Создает проекцию из строк.
+     *
+     * @param id      ID поста
+     * @param status  статус
+     * @param title   заголовок
+     * @param content содержимое
+     * @param utf8    хранить текст байтами UTF-8, а не строками
+     * @return проекция
+     */
+    public static CompactPost of(int id, String status, String title, String content, boolean utf8) {
+        return new CompactPost(id, status, store(title, utf8), store(content, utf8));
+    }
+
+    /**
+     * Создает проекцию из байт UTF-8 (например, из ResultSet.getBytes) без промежуточных строк.
+     *
+     * @param id      ID поста
+     * @param status  статус
+     * @param title   заголовок в UTF-8
+     * @param content содержимое в UTF-8
+     * @param utf8    хранить текст байтами UTF-8, а не строками
+     * @return проекция
+     */
+    public static CompactPost ofUtf8(int id, String status, byte[] title, byte[] content, boolean utf8) {
+        return new CompactPost(id, status, storeUtf8(title, utf8), storeUtf8(content, utf8));
+    }
+
+    /**
+     * Создает проекцию из полного DataPost (raw, если он есть, иначе rendered).
+     *
+     * @param post пост
+     * @param utf8 хранить текст байтами UTF-8, а не строками
+     * @return проекция
+     */
+    public static CompactPost of(DataPost post, boolean utf8) {
+        String title = post.getTitle() == null ? null
+                : post.getTitle().getRaw() != null ? post.getTitle().getRaw() : post.getTitle().getRendered();
+        String content = post.getContent() == null ? null
+                : post.getContent().getRaw() != null ? post.getContent().getRaw() : post.getContent().getRendered();
+        return of(post.getId() == null ? 0 : post.getId(), post.getStatus(), title, content, utf8);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public PostStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return значение статуса как в API и в базе, в том числе нестандартное
+     */
+    public String getStatusValue() {
+        return status == PostStatus.OTHER ? customStatus : status == null ? null : status.getValue();
+    }
+
+    public String getTitle() {
+        return text(title);
+    }
+
+    public String getContent() {
+        return text(content);
+    }
+
+    /**
+     * Сравнивает заголовок со строкой.
+     *
+     * @param expected ожидаемый заголовок
+     * @return совпадает ли заголовок
+     */
+    public boolean titleEquals(String expected) {
+        return expected == null ? title == null : expected.equals(getTitle());
+    }
+
+    /**
+     * @return длина содержимого в байтах UTF-8 (как LENGTH(post_content) в MySQL) или 0
+     */
+    public int getContentUtf8Length() {
+        if (content == null) {
+            return 0;
+        }
+        return content instanceof byte[] ? ((byte[]) content).length
+                : ((String) content).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static Object store(String text, boolean utf8) {
+        return text == null || !utf8 ? text : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Object storeUtf8(byte[] text, boolean utf8) {
+        return text == null || utf8 ? text : new String(text, StandardCharsets.UTF_8);
+    }
+
+    private static String text(Object value) {
+        return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8) : (String) value;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactPost{id=" + id + ", status=" + getStatusValue() + ", title=" + getTitle() + "}";
+    }
+
+    /**
+     * Потоковый разбор JSON поста API: читаются id, status и title/content, остальные поля пропускаются
+     * без построения дерева. Текст переводится из буфера парсера сразу в UTF-8, без промежуточной строки;
+     * rendered читается, только если raw еще не встретился, а после появления raw отбрасывается. Строка
+     * из байт создается лишь при обращении к getTitle/getContent.
+     */
+    public static final class Deserializer extends JsonDeserializer<CompactPost> {
+        @Override
+        public CompactPost deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            int id = 0;
+            String status = null;
+            byte[] title = null;
+            byte[] content = null;
+            for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id":
+                        id = parser.getValueAsInt();
+                        break;
+                    case "status":
+                        status = parser.getValueAsString();
+                        break;
+                    case "title":
+                        title = readText(parser, value);
+                        break;
+                    case "content":
+                        content = readText(parser, value);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return new CompactPost(id, status, title, content);
+        }
+
+        /**
+         * Текст из строки или объекта {raw, rendered}; raw предпочтительнее.
+         */
+        private static byte[] readText(JsonParser parser, JsonToken value) throws IOException {
+            if (value != JsonToken.START_OBJECT) {
+                return value == JsonToken.VALUE_STRING ? utf8(parser) : null;
+            }
+            byte[] raw = null;
+            byte[] rendered = null;
+            for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+                JsonToken token = parser.nextToken();
+                if ("raw".equals(field) && token == JsonToken.VALUE_STRING) {
+                    raw = utf8(parser);
+                    rendered = null;
+                } else if ("rendered".equals(field) && token == JsonToken.VALUE_STRING && raw == null) {
+                    rendered = utf8(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return raw != null ? raw : rendered;
+        }
+
+        /**
+         * Текущее строковое значение парсера в UTF-8, кодированное прямо из его буфера символов.
+         */
+        private static byte[] utf8(JsonParser parser) throws IOException {
+            ByteBuffer encoded = StandardCharsets.UTF_8.encode(
+                    CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()));
+            byte[] bytes = new byte[encoded.remaining()];
+            encoded.get(bytes);
+            return bytes;
+        }
+    }
+}
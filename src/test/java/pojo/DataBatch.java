@@ -0,0 +1,85 @@
+package pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Модели запроса и ответа пакетного эндпоинта WordPress /batch/v1.
+ */
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DataBatch {
+    private String validation;
+    private List<Request> requests;
+
+    /**
+     * Отдельный подзапрос внутри пакета.
+     */
+    @Builder
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Request {
+        private String method;
+        private String path;
+        private Object body;
+    }
+
+    /**
+     * Ответ пакетного эндпоинта: по одному элементу на каждый подзапрос в том же порядке.
+     */
+    @Builder
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Response {
+        private String failed;
+        private List<Item> responses;
+    }
+
+    @Builder
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Item {
+        private Integer status;
+        private JsonNode body;
+    }
+
+    /**
+     * Результат одного подзапроса: статус и тело, разобранное в DataPost или DataError.
+     */
+    @Builder
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private Integer status;
+        private DataPost post;
+        private DataError error;
+
+        public boolean isSuccess() {
+            return status != null && status < 400;
+        }
+    }
+}
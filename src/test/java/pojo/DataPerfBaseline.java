@@ -0,0 +1,56 @@
+package pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Базовая линия производительности: сводки операций по нескольким эталонным прогонам.
+ */
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DataPerfBaseline {
+    private int version;
+    private String apiUrl;
+    private List<Run> runs;
+
+    /**
+     * Один эталонный прогон.
+     */
+    @Builder
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Run {
+        private String recordedAt;
+        private Map<String, Operation> operations;
+    }
+
+    /**
+     * Сводка операции за прогон.
+     */
+    @Builder
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Operation {
+        private long count;
+        private long spanNanos;
+        private double p95Ms;
+        private double opsPerSecond;
+    }
+}
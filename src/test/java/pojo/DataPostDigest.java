@@ -0,0 +1,23 @@
+package pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Пост в базе без тела: вместо post_content хранятся его длина в байтах UTF-8 и SHA-256.
+ */
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataPostDigest {
+    private Integer id;
+    private String title;
+    private String status;
+    private Long contentLength;
+    private String contentSha256;
+}
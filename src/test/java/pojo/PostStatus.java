@@ -0,0 +1,54 @@
+package pojo;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Статус поста WordPress. Нестандартные статусы (из плагинов и служебных типов записей) сводятся к OTHER.
+ */
+public enum PostStatus {
+    PUBLISH("publish"),
+    FUTURE("future"),
+    DRAFT("draft"),
+    PENDING("pending"),
+    PRIVATE("private"),
+    TRASH("trash"),
+    AUTO_DRAFT("auto-draft"),
+    INHERIT("inherit"),
+    OTHER("other");
+
+    private static final PostStatus[] VALUES = values();
+
+    private final String value;
+
+    PostStatus(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return значение статуса в API и в базе
+     */
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Статус по значению из API или базы.
+     *
+     * @param value значение (например, «publish»)
+     * @return статус, OTHER для нестандартного значения или null для null
+     */
+    @JsonCreator
+    public static PostStatus of(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (PostStatus status : VALUES) {
+            if (status.value.equals(value)) {
+                return status;
+            }
+        }
+        return OTHER;
+    }
+}
@@ -1,17 +1,34 @@
 package tests;
 
+import helpers.AsyncDbVerifier;
 import helpers.BaseRequests;
+import helpers.CaptureListener;
+import helpers.ContentDigest;
 
 import helpers.DataBaseHelper;
+import helpers.DurationScheduler;
+import helpers.Metrics;
 import helpers.ParametersProvider;
+import helpers.PerfGate;
+import helpers.Resilience;
+import helpers.SoakRunner;
 import io.restassured.response.ResponseBodyExtractionOptions;
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.Listeners;
+import pojo.DataPost;
+import pojo.DataPostDigest;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 
+@Listeners({CaptureListener.class, DurationScheduler.class})
 public class BaseTest {
 
     /**
@@ -19,6 +36,11 @@ public class BaseTest {
      */
     private final DataBaseHelper dbHelper = new DataBaseHelper();
 
+    /**
+     * Посты, удаление которых отложено до завершения фоновых проверок базы класса.
+     */
+    private final List<Integer> deferredDeletes = new ArrayList<>();
+
     /**
      * Токен авторизации для доступа к API.
      */
@@ -37,6 +59,66 @@ public class BaseTest {
     protected static final String usernameAuthor = ParametersProvider.getProperty("usernameAuthor");
     protected static final String passwordAuthor = ParametersProvider.getProperty("passwordAuthor");
 
+    /**
+     * Выводит счетчики прогона (повторы запросов, срабатывания circuit breaker и т.п.), если они есть.
+     * В итерациях soak-прогона не срабатывает: счетчики выводятся один раз по окончании внешнего сьюта.
+     */
+    @AfterSuite(alwaysRun = true)
+    public void printMetrics() {
+        if (SoakRunner.isNestedRun()) {
+            return;
+        }
+        Metrics.snapshot().forEach((name, value) -> System.out.println("[metrics] " + name + " = " + value));
+    }
+
+    /**
+     * Записывает базовую линию производительности или сравнивает прогон с ней (параметр perfMode)
+     * и роняет прогон при регрессии p95 или пропускной способности. В итерациях soak-прогона не срабатывает.
+     */
+    @AfterSuite(alwaysRun = true)
+    public void checkPerformance() {
+        if (SoakRunner.isNestedRun()) {
+            return;
+        }
+        PerfGate.Result result = PerfGate.finish();
+        if (result != null) {
+            System.out.println(result.getReport());
+            Assert.assertFalse(result.isRegressed(), "Регрессия производительности:\n" + result.getReport());
+        }
+    }
+
+    /**
+     * Дожидается фоновых проверок базы, переданных тестами класса, и приписывает расхождения этим тестам,
+     * после чего удаляет посты, отложенные через deleteAfterDbChecks.
+     */
+    @AfterClass(alwaysRun = true)
+    public void awaitAsyncDbChecks() {
+        try {
+            if (AsyncDbVerifier.ENABLED) {
+                AsyncDbVerifier.awaitAndAttribute(getClass());
+            }
+        } finally {
+            for (Integer postId : deferredDeletes) {
+                deleteItemById(POSTS_PATH, postId, TOKEN);
+            }
+            deferredDeletes.clear();
+        }
+    }
+
+    /**
+     * Удаляет пост сразу или, при включенном dbVerifyAsync, после фоновых проверок класса, чтобы удаление
+     * не изменило состояние, которое проверка еще не успела сравнить.
+     *
+     * @param postId ID поста.
+     */
+    public void deleteAfterDbChecks(Integer postId) {
+        if (AsyncDbVerifier.ENABLED) {
+            deferredDeletes.add(postId);
+        } else {
+            deleteItemById(POSTS_PATH, postId, TOKEN);
+        }
+    }
+
     /**
      * Получение списка объектов любого типа по указанному маршруту без авторизации.
      *
@@ -46,13 +128,13 @@ public class BaseTest {
      * @return Список объектов заданного типа.
      */
     public <T> List<T> getResourceAsList(Class<T> tClass, String resourcePath, String authToken) {
-        ResponseBodyExtractionOptions body = given()
+        ResponseBodyExtractionOptions body = Resilience.call("GET", () -> given()
                 .spec(BaseRequests.requestSpec(authToken))
                 .when()
                 .get(resourcePath)
                 .then()
                 .statusCode(200)
-                .extract().body();
+                .extract().body());
 
         return body.jsonPath().getList("", tClass);
     }
@@ -68,14 +150,14 @@ public class BaseTest {
      * @return Объект заданного типа.
      */
     public <T> T getItemById(Class<T> tClass, String resourcePath, Integer itemId, String authToken) {
-        ResponseBodyExtractionOptions body = given()
+        ResponseBodyExtractionOptions body = Resilience.call("GET", () -> given()
                 .spec(BaseRequests.requestSpec(authToken))
                 .when()
                 .get(resourcePath + "/" + itemId)
                 .then()
                 .statusCode(200)
                 .body("id", equalTo(itemId))
-                .extract().body();
+                .extract().body());
 
         return body.as(tClass);
     }
@@ -88,16 +170,17 @@ public class BaseTest {
      * @param authToken    Токен аутентификации.
      */
     public void deleteItemById(String resourcePath, Integer itemId, String authToken) {
-        given()
+        Resilience.call("DELETE", () -> given()
                 .spec(BaseRequests.requestSpec(authToken))
                 .when()
                 .delete(resourcePath + "/" + itemId)
                 .then()
-                .statusCode(200);
+                .statusCode(200));
     }
 
     /**
      * Проверяет, что пост существует в базе и его параметры совпадают.
+     * Содержимое сравнивается по длине и SHA-256, посчитанным на стороне MySQL, без выгрузки post_content.
      *
      * @param post_id ID поста.
      * @param title   Ожидаемый заголовок.
@@ -105,10 +188,57 @@ public class BaseTest {
      * @param status  Ожидаемый статус.
      */
     public void checkSuccessPostDb(Integer post_id, String title, String content, String status, DataBaseHelper dbHelper) {
-        Assert.assertEquals(dbHelper.getPostById(post_id).getId(), post_id, "ID поста в базе не совпадает");
-        Assert.assertEquals(dbHelper.getPostById(post_id).getTitle().getRaw(), title, "Заголовок поста в базе не совпадает");
-        Assert.assertEquals(dbHelper.getPostById(post_id).getContent().getRaw(), content, "Содержимое поста в базе не совпадает");
-        Assert.assertEquals(dbHelper.getPostById(post_id).getStatus(), status, "Статус поста в базе не совпадает");
+        DataPostDigest actual = dbHelper.getPostDigestById(post_id);
+        Assert.assertNotNull(actual, "Пост не найден в базе");
+        assertPostDigest(actual, ContentDigest.expected(post_id, title, content, status));
+    }
+
+    /**
+     * То же, что checkSuccessPostDb, но при включенном dbVerifyAsync проверка заголовка, содержимого и статуса
+     * выполняется в фоне. Использовать для конечного состояния поста: удалять такой пост до конца класса
+     * нужно через deleteAfterDbChecks.
+     *
+     * @param post_id ID поста.
+     * @param title   Ожидаемый заголовок.
+     * @param content Ожидаемое содержание.
+     * @param status  Ожидаемый статус.
+     */
+    public void checkSuccessPostDbAsync(Integer post_id, String title, String content, String status, DataBaseHelper dbHelper) {
+        if (AsyncDbVerifier.ENABLED) {
+            AsyncDbVerifier.submit(ContentDigest.expected(post_id, title, content, status), true);
+        } else {
+            checkSuccessPostDb(post_id, title, content, status, dbHelper);
+        }
+    }
+
+    /**
+     * Проверяет одним запросом на каждые несколько сотен постов, что все посты существуют в базе и их параметры совпадают.
+     *
+     * @param expectedPosts Ожидаемые посты (ID, заголовок raw, содержание raw, статус).
+     */
+    public void checkSuccessPostsDb(List<DataPost> expectedPosts, DataBaseHelper dbHelper) {
+        List<Integer> ids = expectedPosts.stream().map(DataPost::getId).collect(Collectors.toList());
+        Map<Integer, DataPostDigest> actualPosts = dbHelper.getPostDigestsByIds(ids);
+        for (DataPost expected : expectedPosts) {
+            DataPostDigest actual = actualPosts.get(expected.getId());
+            Assert.assertNotNull(actual, "Пост " + expected.getId() + " не найден в базе");
+            assertPostDigest(actual, ContentDigest.expected(expected.getId(), expected.getTitle().getRaw(),
+                    expected.getContent().getRaw(), expected.getStatus()));
+        }
+    }
+
+    /**
+     * Сравнивает выборку поста из базы (длина и SHA-256 содержимого) с ожидаемой.
+     *
+     * @param actual   Выборка из базы.
+     * @param expected Ожидаемые значения.
+     */
+    protected void assertPostDigest(DataPostDigest actual, DataPostDigest expected) {
+        Assert.assertEquals(actual.getId(), expected.getId(), "ID поста в базе не совпадает");
+        Assert.assertEquals(actual.getTitle(), expected.getTitle(), "Заголовок поста в базе не совпадает");
+        Assert.assertEquals(actual.getContentLength(), expected.getContentLength(), "Длина содержимого поста в базе не совпадает");
+        Assert.assertEquals(actual.getContentSha256(), expected.getContentSha256(), "Содержимое поста в базе не совпадает");
+        Assert.assertEquals(actual.getStatus(), expected.getStatus(), "Статус поста в базе не совпадает");
     }
 
     /**
@@ -130,4 +260,19 @@ public class BaseTest {
         Assert.assertEquals(dbHelper.getPostById(post_id).getId(), post_id, "Пост не найден в базе");
         Assert.assertEquals(dbHelper.getPostById(post_id).getStatus(), status, "Статус поста в базе не совпадает");
     }
-}
\ No newline at end of file
+
+    /**
+     * То же, что checkDeleteDb, но при включенном dbVerifyAsync проверка выполняется в фоне.
+     * Использовать, только если тест больше не меняет пост.
+     *
+     * @param post_id ID поста.
+     * @param status  Ожидаемый статус.
+     */
+    public void checkDeleteDbAsync(Integer post_id, String status) {
+        if (AsyncDbVerifier.ENABLED) {
+            AsyncDbVerifier.submit(new DataPostDigest(post_id, null, status, null, null), false);
+        } else {
+            checkDeleteDb(post_id, status);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package tests;
+
+import helpers.DataBaseHelper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pojo.DataBatch;
+import pojo.DataPost;
+import pojo.DataPostDigest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static helpers.BaseRequests.*;
+
+public class BatchPostTest extends BaseTest {
+    private final DataBaseHelper repo = new DataBaseHelper();
+
+    /**
+     * Число постов больше предела одного пакета, чтобы проверить разбиение на несколько запросов.
+     */
+    private static final int POSTS_COUNT = 30;
+
+    @Test
+    public void createUpdateAndDeletePostsByBatchTest() {
+        List<DataPost> requestPosts = new ArrayList<>();
+        for (int i = 1; i <= POSTS_COUNT; i++) {
+            requestPosts.add(createPostBody("Пакетный пост " + i, "Содержимое пакетного поста " + i + ".", "publish"));
+        }
+        List<DataBatch.Result> created = createPostsBatch(requestPosts, TOKEN);
+        Assert.assertEquals(created.size(), POSTS_COUNT);
+
+        List<DataPost> expectedPosts = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < POSTS_COUNT; i++) {
+            DataBatch.Result result = created.get(i);
+            Assert.assertTrue(result.isSuccess(), "Пост " + (i + 1) + " не создан, статус " + result.getStatus());
+            DataPost requestPost = requestPosts.get(i);
+            DataPost responsePost = result.getPost();
+            Assert.assertEquals(responsePost.getStatus(), requestPost.getStatus());
+            ids.add(responsePost.getId());
+            expectedPosts.add(DataPost.builder()
+                    .id(responsePost.getId())
+                    .title(requestPost.getTitle())
+                    .content(requestPost.getContent())
+                    .status(requestPost.getStatus())
+                    .build());
+        }
+        checkSuccessPostsDb(expectedPosts, repo);
+
+        List<DataPost> updatePosts = new ArrayList<>();
+        for (int i = 0; i < POSTS_COUNT; i++) {
+            DataPost updatePost = createPostBody("Обновленный пакетный пост " + (i + 1),
+                    "Обновленное содержимое пакетного поста " + (i + 1) + ".", "publish");
+            updatePost.setId(ids.get(i));
+            updatePosts.add(updatePost);
+        }
+        List<DataBatch.Result> updated = updatePostsBatch(updatePosts, TOKEN);
+        Assert.assertEquals(updated.size(), POSTS_COUNT);
+        for (int i = 0; i < POSTS_COUNT; i++) {
+            Assert.assertTrue(updated.get(i).isSuccess(), "Пост " + ids.get(i) + " не обновлен, статус " + updated.get(i).getStatus());
+            Assert.assertEquals(updated.get(i).getPost().getId(), ids.get(i));
+        }
+        checkSuccessPostsDb(updatePosts, repo);
+
+        List<DataBatch.Result> deleted = deletePostsBatch(ids, TOKEN);
+        Assert.assertEquals(deleted.size(), POSTS_COUNT);
+        for (int i = 0; i < POSTS_COUNT; i++) {
+            Assert.assertTrue(deleted.get(i).isSuccess(), "Пост " + ids.get(i) + " не удален, статус " + deleted.get(i).getStatus());
+            Assert.assertEquals(deleted.get(i).getPost().getStatus(), "trash");
+        }
+
+        // Один запрос с IN-списком вместо запроса на каждый пост; post_content не выгружается.
+        Map<Integer, DataPostDigest> dbPosts = repo.getPostDigestsByIds(ids);
+        for (int i = 0; i < POSTS_COUNT; i++) {
+            DataPostDigest dbPost = dbPosts.get(ids.get(i));
+            Assert.assertNotNull(dbPost, "Пост " + ids.get(i) + " не найден в базе");
+            Assert.assertEquals(dbPost.getStatus(), "trash", "Статус поста " + ids.get(i) + " в базе не совпадает");
+            Assert.assertEquals(dbPost.getTitle(), updatePosts.get(i).getTitle().getRaw(),
+                    "Заголовок поста " + ids.get(i) + " в базе не совпадает");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package tests;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pojo.CompactPost;
+import pojo.DataPost;
+import pojo.PostStatus;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import static helpers.BaseRequests.createPostBodyWithId;
+
+/**
+ * Проверки CompactPost без стенда: разбор JSON поста API и занимаемая списком постов память
+ * по сравнению с DataPost на одном и том же ответе.
+ */
+public class CompactPostFootprintTest extends BaseTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Число постов в замере памяти: достаточно, чтобы погрешность замера кучи была мала.
+     */
+    private static final int POSTS_COUNT = 20_000;
+
+    @Test
+    public void deserializeCompactPostTest() throws IOException {
+        String json = "[{\"id\":7,\"date\":\"2024-01-01T00:00:00\",\"status\":\"archived\","
+                + "\"title\":{\"raw\":\"Заголовок\",\"rendered\":\"Заголовок &#8212; rendered\"},"
+                + "\"content\":{\"rendered\":\"<p>Только rendered</p>\\n\",\"protected\":false},"
+                + "\"meta\":{\"footnotes\":\"\"},\"tags\":[1,2]},"
+                + "{\"id\":8,\"status\":\"publish\",\"title\":{\"rendered\":\"Первый\",\"raw\":\"Второй\"},\"content\":\"Строка\"}]";
+        List<CompactPost> posts = MAPPER.readValue(json, new TypeReference<List<CompactPost>>() {
+        });
+
+        Assert.assertEquals(posts.size(), 2);
+        CompactPost custom = posts.get(0);
+        Assert.assertEquals(custom.getId(), 7);
+        Assert.assertEquals(custom.getStatus(), PostStatus.OTHER);
+        Assert.assertEquals(custom.getStatusValue(), "archived");
+        Assert.assertEquals(custom.getTitle(), "Заголовок");
+        Assert.assertEquals(custom.getContent(), "<p>Только rendered</p>\n");
+        Assert.assertEquals(custom.getContentUtf8Length(), "<p>Только rendered</p>\n".getBytes(StandardCharsets.UTF_8).length);
+
+        CompactPost rawAfterRendered = posts.get(1);
+        Assert.assertEquals(rawAfterRendered.getStatus(), PostStatus.PUBLISH);
+        Assert.assertEquals(rawAfterRendered.getStatusValue(), "publish");
+        Assert.assertEquals(rawAfterRendered.getTitle(), "Второй");
+        Assert.assertEquals(rawAfterRendered.getContent(), "Строка");
+    }
+
+    @Test
+    public void compactPostFactoriesTest() {
+        byte[] title = "Заголовок".getBytes(StandardCharsets.UTF_8);
+        byte[] content = "Содержимое".getBytes(StandardCharsets.UTF_8);
+        for (boolean utf8 : new boolean[]{true, false}) {
+            CompactPost fromRow = CompactPost.ofUtf8(1, "draft", title, content, utf8);
+            CompactPost fromStrings = CompactPost.of(1, "draft", "Заголовок", "Содержимое", utf8);
+            CompactPost fromDataPost = CompactPost.of(createPostBodyWithId(1, "Заголовок", "Содержимое", "draft"), utf8);
+            for (CompactPost post : List.of(fromRow, fromStrings, fromDataPost)) {
+                Assert.assertEquals(post.getStatus(), PostStatus.DRAFT);
+                Assert.assertTrue(post.titleEquals("Заголовок"));
+                Assert.assertEquals(post.getContent(), "Содержимое");
+                Assert.assertEquals(post.getContentUtf8Length(), content.length);
+            }
+        }
+    }
+
+    /**
+     * Воспроизводимый замер: один и тот же ответ API (заголовок и содержимое в вариантах raw и rendered,
+     * кириллица с разметкой) разбирается в DataPost и в CompactPost, занятая списком куча измеряется
+     * после полной сборки мусора. Результат в байтах на пост выводится в лог.
+     */
+    @Test
+    public void compactPostFootprintTest() {
+        String json = postsJson(POSTS_COUNT);
+
+        long full = retainedBytes(() -> readList(json, new TypeReference<List<DataPost>>() {
+        }));
+        long compact = retainedBytes(() -> readList(json, new TypeReference<List<CompactPost>>() {
+        }));
+
+        double fullPerPost = (double) full / POSTS_COUNT;
+        double compactPerPost = (double) compact / POSTS_COUNT;
+        System.out.printf(Locale.ROOT, "[footprint] DataPost: %.0f B/пост, CompactPost: %.0f B/пост (%.0f%%)%n",
+                fullPerPost, compactPerPost, compactPerPost / fullPerPost * 100);
+        Assert.assertTrue(compactPerPost < fullPerPost * 0.75,
+                String.format(Locale.ROOT, "CompactPost занимает %.0f B/пост против %.0f B/пост у DataPost", compactPerPost, fullPerPost));
+    }
+
+    private static String postsJson(int count) {
+        ArrayNode posts = MAPPER.createArrayNode();
+        for (int i = 1; i <= count; i++) {
+            ObjectNode post = posts.addObject();
+            post.put("id", i);
+            post.put("date", "2024-01-01T00:00:00");
+            post.put("slug", "post-" + i);
+            post.put("status", i % 2 == 0 ? "publish" : "draft");
+            String title = "Тестовый пост номер " + i;
+            post.putObject("title").put("raw", title).put("rendered", title);
+            String content = "Привет! Это содержимое тестового поста " + i + " со ссылкой на https://example.test/" + i + ".";
+            post.putObject("content").put("raw", content).put("rendered", "<p>" + content + "</p>\n").put("protected", false);
+        }
+        return posts.toString();
+    }
+
+    private static <T> List<T> readList(String json, TypeReference<List<T>> type) {
+        try {
+            return MAPPER.readValue(json, type);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка разбора JSON постов", e);
+        }
+    }
+
+    /**
+     * Прирост занятой кучи после полной сборки мусора, пока результат supplier достижим.
+     */
+    private static long retainedBytes(Supplier<Object> supplier) {
+        long before = usedAfterGc();
+        Object value = supplier.get();
+        long after = usedAfterGc();
+        Reference.reachabilityFence(value);
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
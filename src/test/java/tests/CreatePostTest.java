@@ -1,6 +1,7 @@
 package tests;
 
 import helpers.DataBaseHelper;
+import helpers.PostIndex;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import pojo.DataError;
@@ -23,18 +24,14 @@ public class CreatePostTest extends BaseTest {
         Assert.assertEquals(requestPost.getTitle().getRaw(), responsePost.getTitle().getRaw());
         Assert.assertEquals(requestPost.getStatus(), responsePost.getStatus());
 
-        List<DataPost> listPosts = getResourceAsList(DataPost.class, POSTS_PATH, TOKEN);
-        List<Integer> ids = listPosts.stream().map(DataPost::getId).collect(Collectors.toList());
-        List<String> titles = listPosts.stream()
-                .map(post -> post.getTitle().getRendered())
-                .collect(Collectors.toList());
-        Assert.assertTrue(ids.contains(postId));
-        Assert.assertTrue(titles.contains(responsePost.getTitle().getRendered()));
+        PostIndex index = PostIndex.of(getResourceAsList(DataPost.class, POSTS_PATH, TOKEN));
+        Assert.assertTrue(index.containsId(postId));
+        Assert.assertTrue(index.containsTitle(responsePost.getTitle().getRendered()));
 
         checkSuccessPostDb(postId, requestPost.getTitle().getRaw(), requestPost.getContent().getRaw(), requestPost.getStatus(), repo);
 
         deleteItemById(POSTS_PATH, postId, TOKEN);
-        checkDeleteDb(postId, "trash");
+        checkDeleteDbAsync(postId, "trash");
     }
 
     @Test
@@ -53,7 +50,7 @@ public class CreatePostTest extends BaseTest {
         checkSuccessPostDb(postId, responsePost.getTitle().getRaw(), responsePost.getContent().getRaw(), responsePost.getStatus(), repo);
 
         deleteItemById(POSTS_PATH, postId, TOKEN);
-        checkDeleteDb(postId, "trash");
+        checkDeleteDbAsync(postId, "trash");
     }
 
     @Test
@@ -76,13 +73,11 @@ public class CreatePostTest extends BaseTest {
         Assert.assertEquals(responsePost.getData().getStatus(), 401);
 
         List<DataPost> listPosts = getResourceAsList(DataPost.class, POSTS_PATH, TOKEN);
-        List<String> titles = listPosts.stream()
-                .map(post -> post.getTitle().getRendered())
-                .collect(Collectors.toList());
+        PostIndex index = PostIndex.of(listPosts);
         List<String> contents = listPosts.stream()
                 .map(post -> post.getContent().getRendered())
                 .collect(Collectors.toList());
-        Assert.assertFalse(titles.contains(requestPost.getTitle().getRendered()));
+        Assert.assertFalse(index.containsTitle(requestPost.getTitle().getRendered()));
         Assert.assertFalse(contents.contains(requestPost.getContent().getRendered()));
     }
 }
\ No newline at end of file
@@ -1,14 +1,12 @@
 package tests;
 
 import helpers.DataBaseHelper;
+import helpers.PostIndex;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import pojo.DataPost;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 import static helpers.BaseRequests.*;
 
 public class DeletePostTest extends BaseTest {
@@ -25,11 +23,10 @@ public class DeletePostTest extends BaseTest {
     public void deleteCorrectPostWithAuthTest() {
         deleteCorrectPost(postId);
 
-        List<DataPost> listPosts = getResourceAsList(DataPost.class, POSTS_PATH, TOKEN);
-        List<Integer> ids = listPosts.stream().map(DataPost::getId).collect(Collectors.toList());
-        Assert.assertFalse(ids.contains(postId));
+        PostIndex index = PostIndex.of(getResourceAsList(DataPost.class, POSTS_PATH, TOKEN));
+        Assert.assertFalse(index.containsId(postId));
 
-        checkDeleteDb(postId, "trash");
+        checkDeleteDbAsync(postId, "trash");
     }
 
     @Test
@@ -37,20 +34,18 @@ public class DeletePostTest extends BaseTest {
         deleteCorrectPost(postId);
         deleteAlreadyDeletedPost(postId);
 
-        List<DataPost> listPosts = getResourceAsList(DataPost.class, POSTS_PATH, TOKEN);
-        List<Integer> ids = listPosts.stream().map(DataPost::getId).collect(Collectors.toList());
-        Assert.assertFalse(ids.contains(postId));
+        PostIndex index = PostIndex.of(getResourceAsList(DataPost.class, POSTS_PATH, TOKEN));
+        Assert.assertFalse(index.containsId(postId));
 
-        checkDeleteDb(postId, "trash");
+        checkDeleteDbAsync(postId, "trash");
     }
 
     @Test
     public void deleteCorrectPostWithoutAuthTest() {
         deleteCorrectPostWithoutAuth(postId);
 
-        List<DataPost> listPosts = getResourceAsList(DataPost.class, POSTS_PATH, TOKEN);
-        List<Integer> ids = listPosts.stream().map(DataPost::getId).collect(Collectors.toList());
-        Assert.assertTrue(ids.contains(postId));
+        PostIndex index = PostIndex.of(getResourceAsList(DataPost.class, POSTS_PATH, TOKEN));
+        Assert.assertTrue(index.containsId(postId));
 
         checkDeleteDb(postId, "publish");
 
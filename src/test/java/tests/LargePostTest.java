@@ -0,0 +1,53 @@
+package tests;
+
+import helpers.ContentDigest;
+import helpers.DataBaseHelper;
+import helpers.ParametersProvider;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import pojo.DataPost;
+import pojo.DataPostDigest;
+
+import static helpers.BaseRequests.*;
+
+public class LargePostTest extends BaseTest {
+    private Integer postId;
+    private final DataBaseHelper repo = new DataBaseHelper();
+
+    /**
+     * Прогон включается параметром largePostEnabled: пост в десятки мегабайт заметно нагружает стенд.
+     */
+    private static final boolean ENABLED = ParametersProvider.getBooleanProperty("largePostEnabled", false);
+    private static final long LENGTH = ParametersProvider.getLongProperty("largePostLength", 20_000_000);
+    private static final String FRAGMENT = "<p>Большой тестовый пост. Large test post.</p>\n";
+
+    @BeforeMethod
+    public void checkEnabled() {
+        if (!ENABLED) {
+            throw new SkipException("Проверка большого поста выключена (largePostEnabled=false)");
+        }
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteLargePost() {
+        if (postId != null) {
+            deleteItemById(POSTS_PATH, postId, TOKEN);
+            postId = null;
+        }
+    }
+
+    @Test
+    public void createLargePostTest() {
+        String title = "Большой пост";
+        DataPost responsePost = createLargePost(title, repeatedContent(FRAGMENT, LENGTH), "publish", TOKEN);
+        postId = responsePost.getId();
+        Assert.assertEquals(responsePost.getStatus(), "publish");
+
+        DataPostDigest actual = repo.getPostDigestById(postId);
+        Assert.assertNotNull(actual, "Пост не найден в базе");
+        assertPostDigest(actual, ContentDigest.expected(postId, title, repeatedContent(FRAGMENT, LENGTH), "publish"));
+    }
+}
@@ -0,0 +1,39 @@
+package tests;
+
+import helpers.DataBaseHelper;
+import helpers.ParametersProvider;
+import helpers.SoakRunner;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+public class SoakTest extends BaseTest {
+
+    /**
+     * Прогон включается параметром soakEnabled, так как длится soakDurationMin минут.
+     */
+    private static final boolean ENABLED = ParametersProvider.getBooleanProperty("soakEnabled", false);
+
+    @Test
+    public void crudScenariosSoakTest() {
+        if (!ENABLED) {
+            throw new SkipException("Длительный прогон выключен (soakEnabled=false)");
+        }
+        SoakRunner runner = new SoakRunner(
+                new Class<?>[]{CreatePostTest.class, UpdatePostTest.class, DeletePostTest.class},
+                Duration.ofMinutes(ParametersProvider.getLongProperty("soakDurationMin", 60)),
+                Duration.ofSeconds(ParametersProvider.getLongProperty("soakSampleIntervalSec", 30)),
+                ParametersProvider.getLongProperty("soakGrowthThresholdPercent", 20) / 100.0,
+                new DataBaseHelper());
+        Path csvFile = SoakRunner.csvFile(ParametersProvider.getProperty("soakOutputDir"));
+        List<String> findings = runner.run(csvFile);
+
+        System.out.println("[soak] Ряд показателей: " + csvFile.toAbsolutePath());
+        findings.forEach(finding -> System.out.println("[soak] " + finding));
+        Assert.assertTrue(findings.isEmpty(), "Обнаружен устойчивый рост показателей: " + findings);
+    }
+}
@@ -0,0 +1,59 @@
+package tests;
+
+import helpers.DataBaseHelper;
+import helpers.ParametersProvider;
+import helpers.UpdateContentionStress;
+import helpers.UserPool;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import pojo.DataPost;
+
+import java.time.Duration;
+
+import static helpers.BaseRequests.*;
+
+public class UpdateContentionTest extends BaseTest {
+    private Integer postId;
+    private final DataBaseHelper repo = new DataBaseHelper();
+
+    /**
+     * Прогон включается параметром contentionEnabled, так как нагружает стенд.
+     */
+    private static final boolean ENABLED = ParametersProvider.getBooleanProperty("contentionEnabled", false);
+
+    @BeforeMethod
+    public void createPostForContention() {
+        if (!ENABLED) {
+            throw new SkipException("Нагрузочный прогон выключен (contentionEnabled=false)");
+        }
+        DataPost requestBody = createPostBody("Пост для конкурентного обновления", "Исходное содержимое.", "publish");
+        postId = createPost(requestBody, TOKEN).getId();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteContendedPost() {
+        if (postId != null) {
+            deleteItemById(POSTS_PATH, postId, TOKEN);
+        }
+    }
+
+    @Test
+    public void concurrentUpdatesOfSinglePostTest() {
+        UpdateContentionStress stress = new UpdateContentionStress(
+                (int) ParametersProvider.getLongProperty("contentionThreads", 16),
+                Duration.ofSeconds(ParametersProvider.getLongProperty("contentionDurationSec", 30)),
+                ParametersProvider.getBooleanProperty("contentionVirtualThreads", false),
+                repo);
+        UpdateContentionStress.Report report = stress.run(postId, UserPool.shared().tokens());
+        System.out.println(report);
+
+        Assert.assertTrue(report.getWrites() > 0, "Не выполнено ни одной записи");
+        Assert.assertTrue(report.isFinalWriteKnown(), "Итоговая версия в базе не совпадает ни с одной записью: " + report.getFinalTitle());
+        Assert.assertFalse(report.isLostWrite(), "Итоговая версия в базе старше записи, завершившейся позже нее");
+        Assert.assertFalse(report.isTornWrite(), "Заголовок и содержимое в базе получены от разных записей");
+        Assert.assertEquals(report.getReorderedWrites(), 0, "Сервер вернул версии, записанные раньше начала запроса");
+    }
+}
@@ -27,7 +27,7 @@ public class UpdatePostTest extends BaseTest {
 
     @AfterMethod
     public void deleteCreatedPost() {
-        deleteItemById(POSTS_PATH, postId, TOKEN);
+        deleteAfterDbChecks(postId);
     }
 
     @Test
@@ -46,7 +46,7 @@ public class UpdatePostTest extends BaseTest {
         Assert.assertEquals(listPosts.get(0).getTitle().getRendered(), responsePost.getTitle().getRendered());
         Assert.assertEquals(actualContentPost, responsePost.getContent().getRaw());
 
-        checkSuccessPostDb(postId, responsePost.getTitle().getRaw(), responsePost.getContent().getRaw(), responsePost.getStatus(), repo);
+        checkSuccessPostDbAsync(postId, responsePost.getTitle().getRaw(), responsePost.getContent().getRaw(), responsePost.getStatus(), repo);
     }
 
     @DataProvider(name = "updateIdProvider")
@@ -90,6 +90,6 @@ public class UpdatePostTest extends BaseTest {
         Assert.assertEquals(contentResponse, responseAfterGetPost.getContent().getRendered().replace("<p>", "").replace("</p>", "").trim());
         Assert.assertEquals(statusResponse, responseAfterGetPost.getStatus());
 
-        checkSuccessPostDb(postId, requestBody.getTitle().getRaw(), requestBody.getContent().getRaw(), requestBody.getStatus(), repo);
+        checkSuccessPostDbAsync(postId, requestBody.getTitle().getRaw(), requestBody.getContent().getRaw(), requestBody.getStatus(), repo);
     }
 }
\ No newline at end of file